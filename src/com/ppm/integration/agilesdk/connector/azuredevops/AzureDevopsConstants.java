@@ -14,6 +14,20 @@ public class AzureDevopsConstants {
     public static final String KEY_PERSONAL_ACCESS_TOKEN = "personalAccessToken";
 
     public static final String KEY_ORGANIZATION_URL = "organizationUrl";
+
+    public static final String KEY_MAX_CONNECTIONS = "maxConnections";
+
+    public static final String KEY_MAX_PARALLEL_REQUESTS = "maxParallelRequests";
+
+    public static final String KEY_MAX_THROTTLING_WAIT = "maxThrottlingWaitSeconds";
+
+    public static final String KEY_CONNECT_TIMEOUT = "connectTimeoutSeconds";
+
+    public static final String KEY_REQUEST_TIMEOUT = "requestTimeoutSeconds";
+
+    public static final String KEY_QUERY_TIMEOUT = "queryTimeoutSeconds";
+
+    public static final String KEY_WP_EXTRA_FIELDS = "wpExtraFields";
     public static final String API_ROOT_URL = "https://dev.azure.com/";
 
 
@@ -25,12 +39,16 @@ public class AzureDevopsConstants {
     public static final String VERSION_7_VERSION_SUFFIX = "?api-version=7.0";
     public static final String VERSION_51_VERSION_SUFFIX = "?api-version=5.1";
 
-    public static final String API_PROJECTS_URL = APIS_URL + "projects" + VERSION_7_VERSION_SUFFIX;
+    public static final String API_PROJECTS_END_POINT = APIS_URL + "projects";
+
+    public static final String API_PROJECTS_URL = API_PROJECTS_END_POINT + VERSION_7_VERSION_SUFFIX;
 
     public static final String API_WORK_ITEMS_END_POINT = APIS_URL + "wit/workitems" ;
 
     public static final String API_WORK_ITEMS_URL = API_WORK_ITEMS_END_POINT + VERSION_7_VERSION_SUFFIX;
 
+    public static final String API_WORK_ITEMS_BATCH_URL = APIS_URL + "wit/workitemsbatch" + VERSION_7_VERSION_SUFFIX;
+
     public static final String API_WORK_ITEM_TYPES_ENDPOINT = APIS_URL + "wit/workitemtypes";
 
     public static final String API_WORK_ITEM_TYPES_URL = API_WORK_ITEM_TYPES_ENDPOINT + VERSION_7_VERSION_SUFFIX;
@@ -39,6 +57,9 @@ public class AzureDevopsConstants {
 
     public static final String API_ITERATIONS_URL = APIS_URL + "work/teamsettings/iterations" + VERSION_7_VERSION_SUFFIX;
 
+    /** Iterations of all teams of the project, as a tree. */
+    public static final String API_ITERATION_NODES_URL = APIS_URL + "wit/classificationnodes/Iterations" + VERSION_7_VERSION_SUFFIX + "&$depth=20";
+
     public static final String API_WIQL_SUFFIX_URL = APIS_URL + "wit/wiql" + VERSION_7_VERSION_SUFFIX;
 
     public static final String WP_WORK_ITEM_TYPE_PREFIX = "WP_WIT_";
@@ -64,8 +85,22 @@ public class AzureDevopsConstants {
 
     public static final String KEY_WP_INCLUDE_CLOSED =  "wpIncludeClosed";
     public static final String RELATION_PARENT_REL = "System.LinkTypes.Hierarchy-Reverse";
+    /** Parent work item ID, available as a field when relations are not retrieved. */
+    public static final String PARENT_FIELD = "System.Parent";
     public static final String KEY_IMPORT_GROUPS = "importGroups";
     public static final String GROUP_STRUCTURE = "groupStructure";
     public static final String GROUP_SPRINT = "groupSprint";
     public static final String GROUP_STATUS = "groupStatus";
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 50;
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT_SECONDS = 60;
+    public static final int DEFAULT_MAX_PARALLEL_REQUESTS = 4;
+    public static final int DEFAULT_MAX_THROTTLING_WAIT_SECONDS = 120;
+    public static final int DEFAULT_CONNECT_TIMEOUT_SECONDS = 10;
+    public static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+    public static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 120;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_SECONDS = 30;
+    /** Timeouts are passed to HttpClient in ms as int, so they must stay well below Integer.MAX_VALUE / 1000. */
+    public static final int MAX_TIMEOUT_SECONDS = 3600;
 }
@@ -59,7 +59,16 @@ public class AzureDevopsIntegrationConnector extends IntegrationConnector {
                 new PlainText(AzureDevopsConstants.KEY_WP_IN_PROGRESS_STATUSES, "LABEL_WP_IN_PROGRESS_STATUSES", "Active;In Progress;Committed;Open;Doing", false),
                 new PlainText(AzureDevopsConstants.KEY_WP_CLOSED_STATUSES, "LABEL_WP_CLOSED_STATUSES", "Done;Closed;Inactive;Completed;Resolved", false),
                 new PlainText(AzureDevopsConstants.KEY_WP_IGNORED_STATUSES, "LABEL_WP_IGNORED_STATUSES", "Removed", false),
-                new PlainText(AzureDevopsConstants.KEY_WP_EPIC_TYPES, "LABEL_WP_EPIC_TYPES", "Epic", false)
+                new PlainText(AzureDevopsConstants.KEY_WP_EPIC_TYPES, "LABEL_WP_EPIC_TYPES", "Epic", false),
+                new PlainText(AzureDevopsConstants.KEY_WP_EXTRA_FIELDS, "LABEL_WP_EXTRA_FIELDS", "", false),
+                new LineBreaker(),
+                new LabelText("", "ADVANCED_SETTINGS_SECTION", "block", false),
+                new PlainText(AzureDevopsConstants.KEY_MAX_CONNECTIONS, "LABEL_MAX_CONNECTIONS", String.valueOf(AzureDevopsConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE), false),
+                new PlainText(AzureDevopsConstants.KEY_MAX_PARALLEL_REQUESTS, "LABEL_MAX_PARALLEL_REQUESTS", String.valueOf(AzureDevopsConstants.DEFAULT_MAX_PARALLEL_REQUESTS), false),
+                new PlainText(AzureDevopsConstants.KEY_MAX_THROTTLING_WAIT, "LABEL_MAX_THROTTLING_WAIT", String.valueOf(AzureDevopsConstants.DEFAULT_MAX_THROTTLING_WAIT_SECONDS), false),
+                new PlainText(AzureDevopsConstants.KEY_CONNECT_TIMEOUT, "LABEL_CONNECT_TIMEOUT", String.valueOf(AzureDevopsConstants.DEFAULT_CONNECT_TIMEOUT_SECONDS), false),
+                new PlainText(AzureDevopsConstants.KEY_REQUEST_TIMEOUT, "LABEL_REQUEST_TIMEOUT", String.valueOf(AzureDevopsConstants.DEFAULT_REQUEST_TIMEOUT_SECONDS), false),
+                new PlainText(AzureDevopsConstants.KEY_QUERY_TIMEOUT, "LABEL_QUERY_TIMEOUT", String.valueOf(AzureDevopsConstants.DEFAULT_QUERY_TIMEOUT_SECONDS), false)
                 //new CheckBox(AzureDevopsConstants.KEY_FORCE_INTEGRATION_TOKEN_USE, "LABEL_FORCE_INTEGRATION_TOKEN_USE", false)
         });
     }
@@ -14,8 +14,11 @@ import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItem;
 import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItemType;
 import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsService;
 import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsServiceProvider;
+import com.ppm.integration.agilesdk.connector.azuredevops.service.PpmUserResolver;
 import com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.ConnectorExecutors;
 import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
 import com.ppm.integration.agilesdk.connector.azuredevops.util.AgileEntityUtils;
 import com.hp.ppm.common.model.AgileEntityIdProjectDate;
 import com.hp.ppm.integration.model.AgileEntityFieldValue;
@@ -28,12 +31,23 @@ import com.ppm.integration.agilesdk.model.AgileEntityInfo;
 
 public class AzureDevopsRequestIntegration extends RequestIntegration {
 
+    private final Logger logger = Logger.getLogger(AzureDevopsRequestIntegration.class);
+
     private static final int ISSUES_BATCH_SIZE = 200;
 
     @Override
     public List<AgileEntityInfo> getAgileEntitiesInfo(String agileProjectValue, ValueSet instanceConfigurationParameters) {
 
-        List<WorkItemType> workItemTypes = AzureDevopsServiceProvider.get(instanceConfigurationParameters).getWorkItemTypesForProject(agileProjectValue);
+        final AzureDevopsService service = AzureDevopsServiceProvider.get(instanceConfigurationParameters);
+
+        List<WorkItemType> workItemTypes = service.getWorkItemTypesForProject(agileProjectValue);
+
+        // The user will now pick one of these work item types and need its fields: we load all of them in the background in the meantime.
+        service.getAllFieldsDetailsAsync(agileProjectValue).whenComplete((fields, error) -> {
+            if (error != null) {
+                logger.warn("Failed to prefetch fields of Azure DevOps project " + agileProjectValue, ConnectorExecutors.unwrap(error));
+            }
+        });
 
         List<AgileEntityInfo> entityList = new ArrayList<AgileEntityInfo>();
         for (WorkItemType workItemType : workItemTypes) {
@@ -176,9 +190,12 @@ public class AzureDevopsRequestIntegration extends RequestIntegration {
 
         List<List<String>> batchedEntityIds = com.google.common.collect.Lists.partition(new ArrayList<>(entityIds), ISSUES_BATCH_SIZE);
 
+        // Users referenced in work items are only resolved once for all the entities.
+        final PpmUserResolver userResolver = new PpmUserResolver(service.getUserProvider(), null);
+
         for (List<String> entityIdsBatch : batchedEntityIds) {
             List<WorkItem> workItems = service.getWorkItemsModifiedSince(agileProjectValue, entityType, entityIdsBatch, modifiedSinceDate);
-            entities.addAll(workItems.stream().map(wi -> AgileEntityUtils.workItemToAgileEntity(wi, service, fieldsInfo)).collect(Collectors.toList()));
+            entities.addAll(workItems.stream().map(wi -> AgileEntityUtils.workItemToAgileEntity(wi, service, fieldsInfo, userResolver)).collect(Collectors.toList()));
         }
 
         return entities;
@@ -193,7 +210,8 @@ public class AzureDevopsRequestIntegration extends RequestIntegration {
 
         AzureDevopsService service = AzureDevopsServiceProvider.get(instanceConfigurationParameters);
 
-        return AgileEntityUtils.workItemToAgileEntity(service.getSingleWorkItem(entityId), service, service.getFieldsDetails(agileProjectValue, entityType));
+        return AgileEntityUtils.workItemToAgileEntity(service.getSingleWorkItem(entityId), service, service.getFieldsDetails(agileProjectValue, entityType),
+                new PpmUserResolver(service.getUserProvider(), null));
     }
 
     @Override
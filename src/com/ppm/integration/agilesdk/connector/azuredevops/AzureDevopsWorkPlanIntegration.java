@@ -9,18 +9,17 @@ import com.ppm.integration.agilesdk.ValueSet;
 import com.ppm.integration.agilesdk.connector.azuredevops.model.*;
 import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsService;
 import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsServiceProvider;
+import com.ppm.integration.agilesdk.connector.azuredevops.service.WorkItemProjection;
 import com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils;
 import com.ppm.integration.agilesdk.pm.*;
 import com.ppm.integration.agilesdk.provider.LocalizationProvider;
 import com.ppm.integration.agilesdk.provider.Providers;
-import com.ppm.integration.agilesdk.provider.UserProvider;
 import com.ppm.integration.agilesdk.ui.*;
 import com.ppm.integration.agilesdk.ui.Field;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
@@ -196,35 +195,46 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
         }
 
         final AzureDevopsService runService = getService(values);
-        final UserProvider userProvider = service.getUserProvider();
 
         final String specificWorkItemId = values.get(AzureDevopsConstants.KEY_WP_EPIC);
 
+        // We only retrieve the work item fields that are used to build the work plan.
+        final WorkItemProjection projection = WorkItemProjection.forWorkPlan(values);
+
         List<WorkItem> workItems = null;
         if (!StringUtils.isBlank(specificWorkItemId)) {
-            workItems = runService.getProjectWorkItemAndChildren(projectId, specificWorkItemId, workItemTypes, statusesToIgnore.toArray(new String[statusesToIgnore.size()]));
+            workItems = runService.getProjectWorkItemAndChildren(projectId, specificWorkItemId, workItemTypes, projection, statusesToIgnore.toArray(new String[statusesToIgnore.size()]));
         } else {
-            workItems = runService.getProjectWorkItems(projectId, workItemTypes, statusesToIgnore.toArray(new String[statusesToIgnore.size()]));
+            workItems = runService.getProjectWorkItems(projectId, workItemTypes, projection, statusesToIgnore.toArray(new String[statusesToIgnore.size()]));
         }
 
+        // Everything shared by all tasks (PPM project, users, statuses, iterations) is resolved once for the whole import.
+        final WorkPlanImportContext importContext = new WorkPlanImportContext(context, values, runService);
+
+        // All distinct assignees are resolved to PPM users once, rather than once per work item.
+        importContext.getUserResolver().resolveAll(workItems, WorkItemExternalTask.ASSIGNED_TO_FIELD);
+
         // We first create all External Tasks, but without any structure (children) info.
         Map<String, WorkItemExternalTask> externalTasksByWorkItemIds = new LinkedHashMap<>(workItems.size());
         for (WorkItem wi : workItems) {
-            WorkItemExternalTask externalTask = new WorkItemExternalTask(wi, values, context, runService);
+            WorkItemExternalTask externalTask = new WorkItemExternalTask(wi, importContext);
             externalTasksByWorkItemIds.put(wi.getId(), externalTask);
         }
 
+        // Parent of each work item is resolved once, whatever the grouping.
+        final WorkItemHierarchy hierarchy = new WorkItemHierarchy(externalTasksByWorkItemIds.values(), projectId);
+
         // Root tasks that will be returned eventually.
         final List<ExternalTask> rootTasks = new ArrayList<>();
         if (AzureDevopsConstants.GROUP_STATUS.equals(values.get(AzureDevopsConstants.KEY_IMPORT_GROUPS))) {
             // Group by status
-            rootTasks.addAll(getRootTasksGroupByStatus(externalTasksByWorkItemIds, values));
+            rootTasks.addAll(getRootTasksGroupByStatus(hierarchy));
         } else if (AzureDevopsConstants.GROUP_SPRINT.equals(values.get(AzureDevopsConstants.KEY_IMPORT_GROUPS))) {
             // Group by sprint
-            rootTasks.addAll(getRootTasksGroupBySprint(externalTasksByWorkItemIds, service, values));
+            rootTasks.addAll(getRootTasksGroupBySprint(hierarchy));
         } else {
             // Group by work items structure.
-            rootTasks.addAll(groupWorkItemExternalTasksByStructure(externalTasksByWorkItemIds.values(), values));
+            rootTasks.addAll(hierarchy.linkChildren());
         }
 
         // In order to properly reflect the date and effort for summary tasks work items, We add a child leaf work item (no child) for any summary task work item.
@@ -232,9 +242,7 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
             if (!et.getValue().getChildren().isEmpty()) {
                 // Summary task! If there's effort, we add itself as a [Work] child to reflect effort.
                 if (et.getValue().getEffort() != null && et.getValue().getEffort() > 0) {
-                    WorkItemExternalTask externalTaskLeaf = new WorkItemExternalTask(et.getValue().getWorkItem(), values, context, runService);
-                    externalTaskLeaf.setIsWorkLeafTask(true);
-                    et.getValue().addChildFirst(externalTaskLeaf);
+                    et.getValue().addChildFirst(et.getValue().createWorkLeafTask());
                 }
             }
         }
@@ -248,31 +256,35 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
         };
     }
 
-    private List <ExternalTask> getRootTasksGroupBySprint(Map<String, WorkItemExternalTask> externalTasksByWorkItemIds, AzureDevopsService service, ValueSet values) {
+    private List <ExternalTask> getRootTasksGroupBySprint(WorkItemHierarchy hierarchy) {
 
         List <ExternalTask> rootTasks = new ArrayList<>();
-        Map<String, List<WorkItemExternalTask>> tasksByIterationPath = new LinkedHashMap<>(externalTasksByWorkItemIds.size());
+        Map<String, Integer> groupIndexesByIterationPath = new HashMap<>();
         Map<String, Iteration> iterationsByPath = new HashMap<>();
+        int[] groupIndexes = new int[hierarchy.size()];
 
-        for (Map.Entry<String, WorkItemExternalTask> et : externalTasksByWorkItemIds.entrySet()) {
-            String iterationPath  = et.getValue().getIterationPath();
-            if (et.getValue().getIteration() != null) {
-                iterationsByPath.put(iterationPath, et.getValue().getIteration());
+        for (int i = 0 ; i < hierarchy.size() ; i++) {
+            WorkItemExternalTask et = hierarchy.getTask(i);
+            String iterationPath  = et.getIterationPath();
+            if (et.getIteration() != null) {
+                iterationsByPath.put(iterationPath, et.getIteration());
             }
-            List<WorkItemExternalTask> tasks = tasksByIterationPath.get(iterationPath);
-            if (tasks ==  null) {
-                tasks = new ArrayList<>();
-                tasksByIterationPath.put(iterationPath, tasks);
+            Integer groupIndex = groupIndexesByIterationPath.get(iterationPath);
+            if (groupIndex ==  null) {
+                groupIndex = groupIndexesByIterationPath.size();
+                groupIndexesByIterationPath.put(iterationPath, groupIndex);
             }
 
-            tasks.add(et.getValue());
+            groupIndexes[i] = groupIndex;
         }
 
+        List<List<WorkItemExternalTask>> rootTasksByGroup = hierarchy.linkChildren(groupIndexes, groupIndexesByIterationPath.size());
+
         List<Iteration> sortedIterations = iterationsByPath.values().stream().sorted((o1, o2) -> (o1 == null || o1.getStartDate() == null) ? -1 : ((o2 == null || o2.getStartDate() == null) ? 1 : o1.getStartDate().compareTo(o2.getStartDate()))).collect(Collectors.toList());
 
         // create one external task for each sorted iteration
         for (Iteration iteration : sortedIterations) {
-            final List<WorkItemExternalTask> children = groupWorkItemExternalTasksByStructure(tasksByIterationPath.get(iteration.getPath()), values);
+            final List<WorkItemExternalTask> children = rootTasksByGroup.get(groupIndexesByIterationPath.get(iteration.getPath()));
             ExternalTask iterationTask = new ExternalTask() {
                 @Override
                 public String getId() {
@@ -304,8 +316,8 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
         }
 
         // We create one extra task for items without iteration (if any)
-        if (tasksByIterationPath.get(null) != null && !tasksByIterationPath.get(null).isEmpty()) {
-            final List<WorkItemExternalTask> children = groupWorkItemExternalTasksByStructure(tasksByIterationPath.get(null), values);
+        if (groupIndexesByIterationPath.containsKey(null)) {
+            final List<WorkItemExternalTask> children = rootTasksByGroup.get(groupIndexesByIterationPath.get(null));
             ExternalTask noIterationTask = new ExternalTask() {
                 @Override
                 public String getId() {
@@ -329,26 +341,29 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
         return rootTasks;
     }
 
-    private List<ExternalTask> getRootTasksGroupByStatus(Map<String, WorkItemExternalTask> externalTasksByWorkItemIds, ValueSet values) {
-        Map<String, List<WorkItemExternalTask>> tasksByStatus = new LinkedHashMap<>(externalTasksByWorkItemIds.size());
+    private List<ExternalTask> getRootTasksGroupByStatus(WorkItemHierarchy hierarchy) {
+        Map<String, Integer> groupIndexesByStatus = new LinkedHashMap<>();
+        int[] groupIndexes = new int[hierarchy.size()];
 
-        for (Map.Entry<String, WorkItemExternalTask> et : externalTasksByWorkItemIds.entrySet()) {
-            String status  = et.getValue().getAzureDevopsStatus();
-            List<WorkItemExternalTask> tasks = tasksByStatus.get(status);
-            if (tasks ==  null) {
-                tasks = new ArrayList<>();
-                tasksByStatus.put(status, tasks);
+        for (int i = 0 ; i < hierarchy.size() ; i++) {
+            String status  = hierarchy.getTask(i).getAzureDevopsStatus();
+            Integer groupIndex = groupIndexesByStatus.get(status);
+            if (groupIndex ==  null) {
+                groupIndex = groupIndexesByStatus.size();
+                groupIndexesByStatus.put(status, groupIndex);
             }
-            tasks.add(et.getValue());
+            groupIndexes[i] = groupIndex;
         }
 
+        List<List<WorkItemExternalTask>> rootTasksByGroup = hierarchy.linkChildren(groupIndexes, groupIndexesByStatus.size());
+
         List<ExternalTask> rootTasks = new ArrayList<>();
 
-        for (Map.Entry<String, List<WorkItemExternalTask>> et : tasksByStatus.entrySet()) {
+        for (Map.Entry<String, Integer> et : groupIndexesByStatus.entrySet()) {
 
             final String statusName = et.getKey();
 
-            final List<ExternalTask> children = (List<ExternalTask>)(List<? extends ExternalTask>)groupWorkItemExternalTasksByStructure(et.getValue(), values);
+            final List<ExternalTask> children = (List<ExternalTask>)(List<? extends ExternalTask>)rootTasksByGroup.get(et.getValue());
 
             ExternalTask statusTask = new ExternalTask() {
                 @Override
@@ -368,33 +383,6 @@ public class AzureDevopsWorkPlanIntegration extends WorkPlanIntegration {
         return rootTasks;
     }
 
-    /**
-     * We take the list of work item external tasks passed in parameter, structure them according to parent information,
-     * then return the root tasks, i.e. the tasks without parent within the tasks provided as parameter.
-     */
-    private List<WorkItemExternalTask> groupWorkItemExternalTasksByStructure(Collection<WorkItemExternalTask> externalTasks, ValueSet config) {
-
-        String projectId = config.get(AzureDevopsConstants.KEY_WP_PROJECT);
-
-        List<WorkItemExternalTask> rootTasks = new ArrayList<>();
-
-        Map<String, WorkItemExternalTask> externalTaskByWorkItemId = externalTasks.stream().collect(Collectors.toMap(WorkItemExternalTask::getWorkItemId, Function.identity()));
-
-        // Now that we have all external tasks created + root tasks, we need to add children to build the hierarchy
-        for (WorkItemExternalTask et : externalTasks) {
-            String parentId = et.getWorkItem().getParentWorkItemId();
-            if (parentId != null && externalTaskByWorkItemId.containsKey(parentId) && projectId.equalsIgnoreCase(et.getWorkItem().getParentProjectId())) {
-                // Another imported work item is the parent - let's add this one as the child.
-                externalTaskByWorkItemId.get(parentId).addChild(et);
-            } else {
-                // The parent is not imported, so we'll import this work item as a root task even if it has a parent defined in Azure DevOps
-                rootTasks.add(et);
-            }
-        }
-
-        return rootTasks;
-    }
-
     private String getWorkItemTypeNameFromParamName(String paramName) {
         if (paramName == null) {
             return null;
@@ -0,0 +1,507 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Gson instance to use to read Azure DevOps REST responses.
+ *
+ * Model classes are bound with hand-written streaming type adapters rather than by reflection, which only read the properties we use
+ * and skip everything else (links, comments versions, etc.). Derived values such as the project and parent of a work item
+ * are computed once while parsing.
+ *
+ * Gson instances are immutable and thread safe, so this one is shared by all REST calls.
+ */
+public class AzureDevopsGson {
+
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = new Gson().getAdapter(JsonElement.class);
+
+    private static final TypeAdapter<Field> FIELD_ADAPTER = new FieldAdapter();
+
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(WorkItem.class, new WorkItemAdapter())
+            .registerTypeAdapter(Iteration.class, new IterationAdapter())
+            .registerTypeAdapter(Field.class, FIELD_ADAPTER)
+            .registerTypeAdapter(WorkItemType.class, new WorkItemTypeAdapter())
+            .registerTypeAdapter(Project.class, new ProjectAdapter())
+            .create();
+
+    private AzureDevopsGson() {
+    }
+
+    public static Gson get() {
+        return gson;
+    }
+
+    private static class WorkItemAdapter extends TypeAdapter<WorkItem> {
+
+        @Override
+        public WorkItem read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            WorkItem workItem = new WorkItem();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        workItem.setId(nextString(in));
+                        break;
+                    case "rev":
+                        workItem.setRev(nextInteger(in));
+                        break;
+                    case "url":
+                        workItem.setUrl(nextString(in));
+                        break;
+                    case "fields":
+                        workItem.setCompactFields(readFields(in));
+                        break;
+                    case "relations":
+                        workItem.setRelations(readRelations(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            workItem.computeDerivedValues();
+            return workItem;
+        }
+
+        /** Fields are read straight into their compact form, without building a JsonObject tree first. */
+        private WorkItemFields readFields(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                return null;
+            }
+
+            WorkItemFields.Builder fields = new WorkItemFields.Builder();
+            in.beginObject();
+            while (in.hasNext()) {
+                String fieldName = in.nextName();
+                switch (in.peek()) {
+                    case STRING:
+                        fields.addString(fieldName, in.nextString());
+                        break;
+                    case NUMBER:
+                        fields.addNumber(fieldName, in.nextString());
+                        break;
+                    case BOOLEAN:
+                        fields.addBoolean(fieldName, in.nextBoolean());
+                        break;
+                    case NULL:
+                        in.nextNull();
+                        break;
+                    default:
+                        fields.add(fieldName, JSON_ELEMENT_ADAPTER.read(in));
+                }
+            }
+            in.endObject();
+            return fields.build();
+        }
+
+        private List<WorkItem.Relation> readRelations(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return null;
+            }
+
+            List<WorkItem.Relation> relations = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                WorkItem.Relation relation = new WorkItem.Relation();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "rel":
+                            relation.setRel(nextString(in));
+                            break;
+                        case "url":
+                            relation.setUrl(nextString(in));
+                            break;
+                        default:
+                            // We don't need attributes for now.
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                relations.add(relation);
+            }
+            in.endArray();
+            return relations;
+        }
+
+        @Override
+        public void write(JsonWriter out, WorkItem workItem) throws IOException {
+            if (workItem == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(workItem.getId());
+            out.name("rev").value(workItem.getRev());
+            out.name("url").value(workItem.getUrl());
+            out.name("fields");
+            JSON_ELEMENT_ADAPTER.write(out, workItem.getFields());
+            if (workItem.getRelations() != null) {
+                out.name("relations").beginArray();
+                for (WorkItem.Relation relation : workItem.getRelations()) {
+                    out.beginObject().name("rel").value(relation.getRel()).name("url").value(relation.getUrl()).endObject();
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+
+    private static class IterationAdapter extends TypeAdapter<Iteration> {
+
+        @Override
+        public Iteration read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Iteration iteration = new Iteration();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        iteration.setId(nextString(in));
+                        break;
+                    case "name":
+                        iteration.setName(nextString(in));
+                        break;
+                    case "path":
+                        iteration.setPath(nextString(in));
+                        break;
+                    case "url":
+                        iteration.setUrl(nextString(in));
+                        break;
+                    case "attributes":
+                        iteration.setAttributes(readAttributes(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return iteration;
+        }
+
+        private Iteration.IterationAttributes readAttributes(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                return null;
+            }
+
+            Iteration.IterationAttributes attributes = new Iteration.IterationAttributes();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startDate":
+                        attributes.setStartDate(nextString(in));
+                        break;
+                    case "finishDate":
+                        attributes.setFinishDate(nextString(in));
+                        break;
+                    case "timeFrame":
+                        attributes.setTimeFrame(nextString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return attributes;
+        }
+
+        @Override
+        public void write(JsonWriter out, Iteration iteration) throws IOException {
+            if (iteration == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(iteration.getId());
+            out.name("name").value(iteration.getName());
+            out.name("path").value(iteration.getPath());
+            out.name("url").value(iteration.getUrl());
+            if (iteration.getAttributes() != null) {
+                out.name("attributes").beginObject()
+                        .name("startDate").value(iteration.getAttributes().getStartDate())
+                        .name("finishDate").value(iteration.getAttributes().getFinishDate())
+                        .name("timeFrame").value(iteration.getAttributes().getTimeFrame())
+                        .endObject();
+            }
+            out.endObject();
+        }
+    }
+
+    private static class FieldAdapter extends TypeAdapter<Field> {
+
+        @Override
+        public Field read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Field field = new Field();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        field.setName(nextString(in));
+                        break;
+                    case "referenceName":
+                        field.setReferenceName(nextString(in));
+                        break;
+                    case "url":
+                        field.setUrl(nextString(in));
+                        break;
+                    case "type":
+                        field.setType(nextString(in));
+                        break;
+                    case "helpText":
+                        field.setHelpText(nextString(in));
+                        break;
+                    case "alwaysRequired":
+                        field.setAlwaysRequired(nextBoolean(in));
+                        break;
+                    case "allowedValues":
+                        field.setAllowedValues(readStringArray(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return field;
+        }
+
+        @Override
+        public void write(JsonWriter out, Field field) throws IOException {
+            if (field == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(field.getName());
+            out.name("referenceName").value(field.getReferenceName());
+            out.name("url").value(field.getUrl());
+            out.name("type").value(field.getType());
+            out.name("helpText").value(field.getHelpText());
+            out.name("alwaysRequired").value(field.isAlwaysRequired());
+            if (field.getAllowedValues() != null) {
+                out.name("allowedValues").beginArray();
+                for (String allowedValue : field.getAllowedValues()) {
+                    out.value(allowedValue);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+    }
+
+    private static class WorkItemTypeAdapter extends TypeAdapter<WorkItemType> {
+
+        @Override
+        public WorkItemType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            WorkItemType workItemType = new WorkItemType();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        workItemType.setName(nextString(in));
+                        break;
+                    case "referenceName":
+                        workItemType.setReferenceName(nextString(in));
+                        break;
+                    case "description":
+                        workItemType.setDescription(nextString(in));
+                        break;
+                    case "url":
+                        workItemType.setUrl(nextString(in));
+                        break;
+                    case "isDisabled":
+                        workItemType.setDisabled(nextBoolean(in));
+                        break;
+                    case "fields":
+                        workItemType.setFields(readFields(in));
+                        break;
+                    case "fieldInstances":
+                        workItemType.setFieldInstances(readFields(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return workItemType;
+        }
+
+        private List<Field> readFields(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                in.skipValue();
+                return null;
+            }
+
+            List<Field> fields = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                fields.add(FIELD_ADAPTER.read(in));
+            }
+            in.endArray();
+            return fields;
+        }
+
+        @Override
+        public void write(JsonWriter out, WorkItemType workItemType) throws IOException {
+            if (workItemType == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(workItemType.getName());
+            out.name("referenceName").value(workItemType.getReferenceName());
+            out.name("description").value(workItemType.getDescription());
+            out.name("url").value(workItemType.getUrl());
+            out.name("isDisabled").value(workItemType.isDisabled());
+            writeFields(out, "fields", workItemType.getFields());
+            writeFields(out, "fieldInstances", workItemType.getFieldInstances());
+            out.endObject();
+        }
+
+        private void writeFields(JsonWriter out, String name, List<Field> fields) throws IOException {
+            if (fields == null) {
+                return;
+            }
+            out.name(name).beginArray();
+            for (Field field : fields) {
+                FIELD_ADAPTER.write(out, field);
+            }
+            out.endArray();
+        }
+    }
+
+    private static class ProjectAdapter extends TypeAdapter<Project> {
+
+        @Override
+        public Project read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            Project project = new Project();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        project.setId(nextString(in));
+                        break;
+                    case "name":
+                        project.setName(nextString(in));
+                        break;
+                    case "url":
+                        project.setUrl(nextString(in));
+                        break;
+                    case "state":
+                        project.setState(nextString(in));
+                        break;
+                    case "visibility":
+                        project.setVisibility(nextString(in));
+                        break;
+                    case "revision":
+                        Integer revision = nextInteger(in);
+                        project.setRevision(revision == null ? 0 : revision);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return project;
+        }
+
+        @Override
+        public void write(JsonWriter out, Project project) throws IOException {
+            if (project == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(project.getId());
+            out.name("name").value(project.getName());
+            out.name("url").value(project.getUrl());
+            out.name("state").value(project.getState());
+            out.name("visibility").value(project.getVisibility());
+            out.name("revision").value(project.getRevision());
+            out.endObject();
+        }
+    }
+
+    /** Reads strings, numbers and booleans as a String. Objects and arrays are skipped and read as null. */
+    private static String nextString(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case STRING:
+            case NUMBER:
+                return in.nextString();
+            case BOOLEAN:
+                return String.valueOf(in.nextBoolean());
+            case NULL:
+                in.nextNull();
+                return null;
+            default:
+                in.skipValue();
+                return null;
+        }
+    }
+
+    private static Integer nextInteger(JsonReader in) throws IOException {
+        String value = nextString(in);
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean nextBoolean(JsonReader in) throws IOException {
+        return Boolean.parseBoolean(nextString(in));
+    }
+
+    private static String[] readStringArray(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(nextString(in));
+        }
+        in.endArray();
+        return values.toArray(new String[0]);
+    }
+}
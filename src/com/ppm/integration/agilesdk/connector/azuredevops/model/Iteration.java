@@ -4,7 +4,8 @@ import org.apache.commons.lang.StringUtils;
 
 import java.util.Date;
 
-import static com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils.parseDateStr;
+import static com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils.NO_DATE;
+import static com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils.parseDateMillis;
 
 public class Iteration extends AzureDevopsObject {
 
@@ -12,6 +13,11 @@ public class Iteration extends AzureDevopsObject {
 
     private IterationAttributes attributes;
 
+    // Dates are parsed only once, as they are read for every work item of this iteration.
+    private transient Long startTime;
+
+    private transient Long finishTime;
+
     public String getPath() {
         return path;
     }
@@ -29,7 +35,7 @@ public class Iteration extends AzureDevopsObject {
     }
 
 
-    public class IterationAttributes {
+    public static class IterationAttributes {
         private String startDate;
 
         private String finishDate;
@@ -66,7 +72,11 @@ public class Iteration extends AzureDevopsObject {
             return null;
         }
 
-        return parseDateStr(attributes.getStartDate());
+        if (startTime == null) {
+            startTime = parseDateMillis(attributes.getStartDate());
+        }
+
+        return toDate(startTime);
     }
 
     public Date getFinishDate() {
@@ -74,6 +84,15 @@ public class Iteration extends AzureDevopsObject {
             return null;
         }
 
-        return parseDateStr(attributes.getFinishDate());
+        if (finishTime == null) {
+            finishTime = parseDateMillis(attributes.getFinishDate());
+        }
+
+        return toDate(finishTime);
+    }
+
+    /** Unparseable dates are stored as NO_DATE so that we don't try to parse them again. */
+    private static Date toDate(long time) {
+        return time == NO_DATE ? null : new Date(time);
     }
 }
@@ -0,0 +1,111 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All the iterations of a project, indexed by (case insensitive) iteration path.
+ *
+ * It is built from the Iterations classification nodes tree of the project, which contains the iterations of all teams.
+ * Classification node paths look like <code>\Project\Iteration\Release 1\Sprint 1</code> while work items iteration paths look like
+ * <code>Project\Release 1\Sprint 1</code>, so we index iterations with the latter.
+ */
+public class IterationIndex {
+
+    private final Map<String, Iteration> iterationsByPath;
+
+    private IterationIndex(Map<String, Iteration> iterationsByPath) {
+        this.iterationsByPath = Collections.unmodifiableMap(iterationsByPath);
+    }
+
+    public static IterationIndex fromClassificationNodes(JsonObject rootNode) {
+        Map<String, Iteration> iterationsByPath = new HashMap<>();
+
+        // The root node is the project itself and not an actual iteration, so we only index its children.
+        if (rootNode != null) {
+            indexChildren(rootNode, iterationsByPath);
+        }
+
+        return new IterationIndex(iterationsByPath);
+    }
+
+    private static void indexChildren(JsonObject node, Map<String, Iteration> iterationsByPath) {
+        JsonElement children = node.get("children");
+        if (children == null || !children.isJsonArray()) {
+            return;
+        }
+
+        for (JsonElement child : (JsonArray)children) {
+            if (!child.isJsonObject()) {
+                continue;
+            }
+            JsonObject childNode = child.getAsJsonObject();
+            Iteration iteration = toIteration(childNode);
+            if (iteration.getPath() != null) {
+                iterationsByPath.put(iteration.getPath().toLowerCase(), iteration);
+            }
+            indexChildren(childNode, iterationsByPath);
+        }
+    }
+
+    private static Iteration toIteration(JsonObject node) {
+        Iteration iteration = new Iteration();
+        iteration.setId(getString(node, "identifier"));
+        iteration.setName(getString(node, "name"));
+        iteration.setUrl(getString(node, "url"));
+        iteration.setPath(toIterationPath(getString(node, "path")));
+
+        Iteration.IterationAttributes attributes = new Iteration.IterationAttributes();
+        JsonElement nodeAttributes = node.get("attributes");
+        if (nodeAttributes != null && nodeAttributes.isJsonObject()) {
+            attributes.setStartDate(getString(nodeAttributes.getAsJsonObject(), "startDate"));
+            attributes.setFinishDate(getString(nodeAttributes.getAsJsonObject(), "finishDate"));
+        }
+        iteration.setAttributes(attributes);
+
+        return iteration;
+    }
+
+    /** Turns <code>\Project\Iteration\Sprint 1</code> into <code>Project\Sprint 1</code> */
+    private static String toIterationPath(String nodePath) {
+        if (StringUtils.isBlank(nodePath)) {
+            return null;
+        }
+
+        String path = nodePath.startsWith("\\") ? nodePath.substring(1) : nodePath;
+
+        int projectEnd = path.indexOf('\\');
+        if (projectEnd < 0) {
+            return path;
+        }
+        int structureEnd = path.indexOf('\\', projectEnd + 1);
+        if (structureEnd < 0) {
+            return path.substring(0, projectEnd);
+        }
+
+        return path.substring(0, projectEnd) + path.substring(structureEnd);
+    }
+
+    private static String getString(JsonObject o, String property) {
+        JsonElement value = o.get(property);
+        return (value == null || !value.isJsonPrimitive()) ? null : value.getAsString();
+    }
+
+    public Iteration get(String iterationPath) {
+        if (iterationPath == null) {
+            return null;
+        }
+        return iterationsByPath.get(iterationPath.toLowerCase());
+    }
+
+    public Collection<Iteration> getIterations() {
+        return iterationsByPath.values();
+    }
+}
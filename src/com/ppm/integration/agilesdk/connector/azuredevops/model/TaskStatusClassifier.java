@@ -0,0 +1,37 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.ppm.integration.agilesdk.ValueSet;
+import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils;
+import com.ppm.integration.agilesdk.pm.ExternalTask;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps Azure DevOps work item states to PPM task statuses, based on the "In Progress" and "Closed" statuses of the connector configuration.
+ * States are compared case-insensitively. Any state that is neither "In Progress" nor "Closed" is considered "Ready".
+ */
+public class TaskStatusClassifier {
+
+    private final Set<String> inProgressStatuses;
+
+    private final Set<String> completedStatuses;
+
+    public TaskStatusClassifier(ValueSet config) {
+        this.inProgressStatuses = AzureDevOpsUtils.extractStringListParams(config.get(AzureDevopsConstants.KEY_WP_IN_PROGRESS_STATUSES)).stream().map(String::toLowerCase).collect(Collectors.toSet());
+        this.completedStatuses = AzureDevOpsUtils.extractStringListParams(config.get(AzureDevopsConstants.KEY_WP_CLOSED_STATUSES)).stream().map(String::toLowerCase).collect(Collectors.toSet());
+    }
+
+    public ExternalTask.TaskStatus getTaskStatus(String azureDevopsStatus) {
+        String status = azureDevopsStatus.toLowerCase();
+
+        if (inProgressStatuses.contains(status)) {
+            return ExternalTask.TaskStatus.IN_PROGRESS;
+        } else if (completedStatuses.contains(status)) {
+            return ExternalTask.TaskStatus.COMPLETED;
+        } else {
+            return ExternalTask.TaskStatus.READY;
+        }
+    }
+}
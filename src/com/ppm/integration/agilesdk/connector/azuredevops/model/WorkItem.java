@@ -1,13 +1,9 @@
 package com.ppm.integration.agilesdk.connector.azuredevops.model;
 
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.hp.ppm.user.model.User;
 import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
-import com.ppm.integration.agilesdk.provider.UserProvider;
 import org.apache.commons.lang3.StringUtils;
 
-import java.lang.reflect.Method;
 import java.util.*;
 
 import static com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils.parseDateStr;
@@ -24,17 +20,44 @@ public class WorkItem extends AzureDevopsObject {
     }
 
     public String getParentProjectId() {
+        if (derivedValuesComputed) {
+            return parentProjectId;
+        }
         return extractProjectIdFromUrl(getParentUrl());
     }
 
     public String getParentWorkItemId() {
+        if (derivedValuesComputed) {
+            return parentWorkItemId;
+        }
+
         String parentUrl = getParentUrl();
         if (!StringUtils.isBlank(parentUrl)) {
             return parentUrl.substring(parentUrl.lastIndexOf('/')+1);
         }
+
+        // If relations were not retrieved, parent ID may still have been retrieved as a field.
+        if (fields != null) {
+            Double parentId = getNumberField(AzureDevopsConstants.PARENT_FIELD);
+            if (parentId != null) {
+                return String.valueOf(parentId.longValue());
+            }
+        }
         return null;
     }
 
+    /**
+     * Computes the project and parent of this work item once, so that building the work plan hierarchy doesn't scan
+     * the relations again for every lookup. Called when the work item has been fully read from JSON.
+     */
+    void computeDerivedValues() {
+        derivedValuesComputed = false;
+        projectId = extractProjectIdFromUrl(getUrl());
+        parentWorkItemId = getParentWorkItemId();
+        parentProjectId = getParentProjectId();
+        derivedValuesComputed = true;
+    }
+
     private String getParentUrl() {
         if (getRelations() != null) {
             for (Relation relation : getRelations()) {
@@ -59,9 +82,15 @@ public class WorkItem extends AzureDevopsObject {
 
     private String projectId = null;
 
+    private transient String parentWorkItemId;
+
+    private transient String parentProjectId;
+
+    private transient boolean derivedValuesComputed = false;
+
     private Integer rev;
 
-    private JsonObject fields;
+    private WorkItemFields fields;
 
     public List<Relation> relations;
 
@@ -69,16 +98,35 @@ public class WorkItem extends AzureDevopsObject {
         return rev;
     }
 
+    @Override
+    public void setUrl(String url) {
+        super.setUrl(url);
+        this.projectId = null;
+        this.derivedValuesComputed = false;
+    }
+
     public void setRev(Integer rev) {
         this.rev = rev;
     }
 
+    /**
+     * @return a copy of the fields as a JsonObject. Use the get*Field methods to read values without rebuilding the whole object.
+     */
     public JsonObject getFields() {
-        return fields;
+        return fields == null ? null : fields.toJsonObject();
     }
 
     public void setFields(JsonObject fields) {
+        setCompactFields(fields == null ? null : WorkItemFields.fromJsonObject(fields));
+    }
+
+    public WorkItemFields getCompactFields() {
+        return fields;
+    }
+
+    public void setCompactFields(WorkItemFields fields) {
         this.fields = fields;
+        this.derivedValuesComputed = false;
     }
 
     public List<Relation> getRelations() {
@@ -87,6 +135,7 @@ public class WorkItem extends AzureDevopsObject {
 
     public void setRelations(List<Relation> relations) {
         this.relations = relations;
+        this.derivedValuesComputed = false;
     }
 
     public Date getLastUpdateTime() {
@@ -97,7 +146,7 @@ public class WorkItem extends AzureDevopsObject {
         return lastUpdateTime;
     }
 
-    public class Relation {
+    public static class Relation {
         private String rel;
         private String url;
 
@@ -121,26 +170,19 @@ public class WorkItem extends AzureDevopsObject {
     }
 
     public String getStringField(String fieldName) {
-        JsonElement fieldValue = getFields().get(fieldName);
-
-        if (fieldValue == null || !fieldValue.isJsonPrimitive()) {
-            return null;
-        }
-
-        return fieldValue.getAsString();
+        return fields.getString(fieldName);
     }
 
     public Double getNumberField(String fieldName) {
-        JsonElement fieldValue = getFields().get(fieldName);
-
-        if (fieldValue == null || !fieldValue.isJsonPrimitive()) {
-            return null;
-        }
-
-        return fieldValue.getAsDouble();
+        return fields.getNumber(fieldName);
     }
 
     public Date getDateField(String fieldName) {
+        Long epochMillis = fields.getEpochMillis(fieldName);
+        if (epochMillis != null) {
+            return new Date(epochMillis);
+        }
+
         String dateStr = getStringField(fieldName);
 
         if (org.apache.commons.lang.StringUtils.isBlank(dateStr)) {
@@ -151,98 +193,9 @@ public class WorkItem extends AzureDevopsObject {
     }
 
     /**
-     * @return The list of the PPM User IDs based on the content of the emails or people for that property.
-     *
-     *
+     * @return the identities referenced by that field (System.AssignedTo...), to be matched with PPM users by PpmUserResolver.
      */
-    public List<User> getResourceField(String fieldName, Long projectId, UserProvider userProvider) {
-
-        List<User> ppmResources = new ArrayList<>();
-
-        JsonElement fieldValue = getFields().get(fieldName);
-
-        if (fieldValue == null) {
-            return ppmResources;
-        }
-
-        if (fieldValue.isJsonArray()) {
-            Set<Long> ppmResourceIds = new HashSet<>();
-            for (JsonElement val : fieldValue.getAsJsonArray()) {
-                User user = getResourceIdFromEmailOrUsernameOrFullName(getUserIdentifierFromElement(val), getFullNameFromElement(val), userProvider, projectId);
-                if (user != null && !ppmResourceIds.contains(user.getUserId())) {
-                    ppmResourceIds.add(user.getUserId());
-                    ppmResources.add(user);
-                }
-            }
-        } else {
-            User user = getResourceIdFromEmailOrUsernameOrFullName(getUserIdentifierFromElement(fieldValue), getFullNameFromElement(fieldValue), userProvider, projectId);
-            if (user != null) {
-                ppmResources.add(user);
-            }
-        }
-
-        return ppmResources;
-    }
-
-    private String getFullNameFromElement(JsonElement fieldValue) {
-        if (fieldValue.isJsonPrimitive()) {
-            return fieldValue.getAsString();
-        }
-
-        if (fieldValue.isJsonObject()) {
-            JsonObject field = fieldValue.getAsJsonObject();
-            if (field.has("displayName") && field.get("displayName").isJsonPrimitive()) {
-                return field.get("displayName").getAsString();
-            }
-        }
-
-        return null;
-    }
-
-    private String getUserIdentifierFromElement(JsonElement fieldValue) {
-        if (fieldValue.isJsonPrimitive()) {
-            return fieldValue.getAsString();
-        }
-
-        if (fieldValue.isJsonObject()) {
-            JsonObject field = fieldValue.getAsJsonObject();
-            if (field.has("uniqueName") && field.get("uniqueName").isJsonPrimitive()) {
-                return field.get("uniqueName").getAsString();
-            }
-            if (field.has("name") && field.get("name").isJsonPrimitive()) {
-                return field.get("name").getAsString();
-            }
-        }
-
-        return null;
-    }
-
-    private User getResourceIdFromEmailOrUsernameOrFullName(String emailOrUsername, String fullName, UserProvider userProvider, Long projectId) {
-        User user = null;
-
-        if (!org.apache.commons.lang.StringUtils.isBlank(emailOrUsername)) {
-            user = userProvider.getByEmail(emailOrUsername.trim());
-
-            if (user == null) {
-                user = userProvider.getByUsername(emailOrUsername.trim());
-            }
-        }
-
-        if (user == null && !org.apache.commons.lang.StringUtils.isBlank(fullName)) {
-            // This code is complicated and use reflection because we want it to work on older versions of PPM where
-            // UserProvider doesn't have the #getByFullName" method, which was introduced in PPM 2023.3
-            try {
-                Method m = UserProvider.class.getMethod("getByFullName", String.class, Long.class, boolean.class);
-                if (m != null) {
-                    user = (User) m.invoke(userProvider, fullName.trim(), projectId, false);
-                }
-            } catch (Exception e) {
-                // We do nothing, the method doesn't exist
-            }
-
-            // Above reflection code will just call this on PPM 2023.3+:
-            // user = userProvider.getByFullName(fullName.trim(), projectId, false);
-        }
-       return user;
+    public List<WorkItemIdentity> getIdentityField(String fieldName) {
+        return fields == null ? Collections.emptyList() : fields.getIdentities(fieldName);
     }
 }
@@ -2,26 +2,15 @@ package com.ppm.integration.agilesdk.connector.azuredevops.model;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.hp.ppm.integration.service.impl.ProjectUtilService;
 import com.hp.ppm.user.model.User;
 import com.kintana.core.logging.LogManager;
 import com.kintana.core.logging.Logger;
-import com.mercury.itg.core.impl.SpringContainerFactory;
-import com.ppm.integration.agilesdk.ValueSet;
-import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
-import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsService;
-import com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils;
 import com.ppm.integration.agilesdk.pm.ExternalTask;
 import com.ppm.integration.agilesdk.pm.ExternalTaskActuals;
-import com.ppm.integration.agilesdk.pm.WorkPlanIntegrationContext;
-import com.ppm.integration.agilesdk.provider.UserProvider;
 import org.apache.commons.lang.StringUtils;
 
-import java.lang.reflect.Method;
 import java.util.*;
-import java.util.stream.Collectors;
 
-import static com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils.parseDateStr;
 
 /**
  * Exposes a AzureDevops Page object as an External Task, based on the passed config.
@@ -30,42 +19,84 @@ public class WorkItemExternalTask extends ExternalTask {
 
     private final static Logger logger = LogManager.getLogger(WorkItemExternalTask.class);
 
-    private WorkItem workItem;
-    private ValueSet config;
-    private UserProvider userProvider;
-    private Double effort = 0.0d;
-    private Double remainingEffort = 0.0d;
-    private List<User> resources = new ArrayList<>();
-
-    private List<ExternalTask> children = new ArrayList<>();
-
-
-
-    private Iteration iteration = null;
-
-
-    private boolean isWorkLeafTask = false;
-
-    public WorkItemExternalTask(WorkItem workItem, ValueSet config, WorkPlanIntegrationContext context, AzureDevopsService service) {
+    public static final String ASSIGNED_TO_FIELD = "System.AssignedTo";
+
+    /** All the work item fields read by this class. Other fields don't need to be retrieved when importing a work plan. */
+    public static final List<String> IMPORTED_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "System.Title",
+            "System.WorkItemType",
+            "System.State",
+            ASSIGNED_TO_FIELD,
+            "System.IterationPath",
+            "Microsoft.VSTS.Scheduling.Effort",
+            "Microsoft.VSTS.Scheduling.RemainingWork",
+            "Microsoft.VSTS.Scheduling.StartDate",
+            "Microsoft.VSTS.Scheduling.TargetDate"));
+
+    private final WorkItem workItem;
+    private final Double effort;
+    private final Double remainingEffort;
+    private final List<User> resources;
+
+    private final List<ExternalTask> children = new ArrayList<>();
+
+    private final Iteration iteration;
+
+    private final boolean isWorkLeafTask;
+
+    // Values below never change once the task is created, and PPM reads them many times while merging the work plan, so they're computed only once.
+    private final String azureDevopsStatus;
+    private final TaskStatus status;
+    private final String name;
+    private final long scheduledStart;
+    private final long scheduledFinish;
+    private final List<ExternalTaskActuals> actuals;
+
+    /**
+     * @param importContext shared by all the tasks of the imported work plan.
+     */
+    public WorkItemExternalTask(WorkItem workItem, WorkPlanImportContext importContext) {
         this.workItem = workItem;
-        this.config = config;
-        this.userProvider = service.getUserProvider();
-        this.resources = this.workItem.getResourceField("System.AssignedTo", getProjectIdFromContext(context), userProvider);
+        this.isWorkLeafTask = false;
+        this.resources = Collections.unmodifiableList(importContext.getUserResolver().resolve(this.workItem.getIdentityField(ASSIGNED_TO_FIELD)));
         this.effort = this.workItem.getNumberField("Microsoft.VSTS.Scheduling.Effort");
         this.remainingEffort = this.workItem.getNumberField("Microsoft.VSTS.Scheduling.RemainingWork");
-        this.iteration = service.getIteration(this.workItem.getStringField("System.IterationPath"));
+        this.iteration = importContext.getIteration(this.workItem.getStringField("System.IterationPath"));
+
+        String state = this.workItem.getStringField("System.State");
+        this.azureDevopsStatus = state == null ? "New" : state;
+        this.status = importContext.getStatusClassifier().getTaskStatus(this.azureDevopsStatus);
+        this.name = "[" + this.workItem.getStringField("System.WorkItemType") + "] " + this.workItem.getStringField("System.Title");
+        this.scheduledStart = computeScheduledStart().getTime();
+        this.scheduledFinish = computeScheduledFinish().getTime();
+        this.actuals = Collections.unmodifiableList(computeActuals());
     }
 
-    public String getIterationPath() {
-        return iteration == null ? null : iteration.getPath();
+    /** Work leaf task of the passed task: everything is the same but the name and children. */
+    private WorkItemExternalTask(WorkItemExternalTask task) {
+        this.workItem = task.workItem;
+        this.isWorkLeafTask = true;
+        this.resources = task.resources;
+        this.effort = task.effort;
+        this.remainingEffort = task.remainingEffort;
+        this.iteration = task.iteration;
+        this.azureDevopsStatus = task.azureDevopsStatus;
+        this.status = task.status;
+        this.name = "[Work] " + this.workItem.getStringField("System.Title");
+        this.scheduledStart = task.scheduledStart;
+        this.scheduledFinish = task.scheduledFinish;
+        this.actuals = task.actuals;
     }
 
-    private Long getProjectIdFromContext(WorkPlanIntegrationContext context) {
-        // There seems to be a bug to retrieve project ID when synching project from work plan, so we get project ID from task ID.
-        if (context != null && context.currentTask() != null) {
-            return ((ProjectUtilService) SpringContainerFactory.getBean("projectUtilService")).getWorkPlan(context.currentTask().getWorkplanId()).getProject().getId();
-        }
-        return null;
+    /**
+     * @return a new "[Work]" leaf task for the same work item, used to carry the effort of this work item when it's a summary task.
+     */
+    public WorkItemExternalTask createWorkLeafTask() {
+        return new WorkItemExternalTask(this);
+    }
+
+    public String getIterationPath() {
+        return iteration == null ? null : iteration.getPath();
     }
 
     @Override
@@ -75,19 +106,7 @@ public class WorkItemExternalTask extends ExternalTask {
 
     @Override
     public TaskStatus getStatus() {
-
-        String status = getAzureDevopsStatus();
-
-        Set<String> inProgressStatuses = AzureDevOpsUtils.extractStringListParams(config.get(AzureDevopsConstants.KEY_WP_IN_PROGRESS_STATUSES)).stream().map(String::toLowerCase).collect(Collectors.toSet());
-        Set<String> completedStatuses = AzureDevOpsUtils.extractStringListParams(config.get(AzureDevopsConstants.KEY_WP_CLOSED_STATUSES)).stream().map(String::toLowerCase).collect(Collectors.toSet());
-
-        if (inProgressStatuses.contains(status.toLowerCase())) {
-            return TaskStatus.IN_PROGRESS;
-        } else if (completedStatuses.contains(status.toLowerCase())) {
-            return TaskStatus.COMPLETED;
-        } else {
-            return TaskStatus.READY;
-        }
+        return status;
     }
 
     @Override
@@ -97,15 +116,29 @@ public class WorkItemExternalTask extends ExternalTask {
 
     @Override
     public String getName() {
-        return (isWorkLeafTask ? "[Work] " : "[" + this.workItem.getStringField("System.WorkItemType") + "] ") + this.workItem.getStringField("System.Title");
+        return name;
     }
 
     @Override
     public Date getScheduledStart() {
+        return new Date(scheduledStart);
+    }
+
+    @Override
+    public Date getScheduledFinish() {
+        return new Date(scheduledFinish);
+    }
+
+    @Override
+    public List<ExternalTaskActuals> getActuals() {
+        return actuals;
+    }
+
+    private Date computeScheduledStart() {
         Date startDate = adjustStartDateTime(this.workItem.getDateField("Microsoft.VSTS.Scheduling.StartDate"));
 
         if (startDate == null && iteration != null) {
-            startDate = adjustStartDateTime(parseDateStr(iteration.getAttributes().getStartDate()));
+            startDate = adjustStartDateTime(iteration.getStartDate());
         }
 
         if (startDate == null) {
@@ -116,12 +149,11 @@ public class WorkItemExternalTask extends ExternalTask {
     }
 
 
-    @Override
-    public Date getScheduledFinish() {
+    private Date computeScheduledFinish() {
         Date finishDate = adjustStartDateTime(this.workItem.getDateField("Microsoft.VSTS.Scheduling.TargetDate"));
 
         if (finishDate == null && iteration != null) {
-            finishDate = adjustStartDateTime(parseDateStr(iteration.getAttributes().getFinishDate()));
+            finishDate = adjustStartDateTime(iteration.getFinishDate());
         }
 
         if (finishDate == null) {
@@ -131,8 +163,7 @@ public class WorkItemExternalTask extends ExternalTask {
         return finishDate;
     }
 
-    @Override
-    public List<ExternalTaskActuals> getActuals() {
+    private List<ExternalTaskActuals> computeActuals() {
 
         List<ExternalTaskActuals> actuals = new ArrayList<ExternalTaskActuals>();
 
@@ -140,12 +171,12 @@ public class WorkItemExternalTask extends ExternalTask {
 
         if (resources.isEmpty()) {
             // All is unassigned effort
-            ExternalTaskActuals unassignedActuals = new AzureDevopsExternalTaskActuals(effort, remainingEffort, getStatus(), getScheduledStart(), getScheduledFinish(), null);
+            ExternalTaskActuals unassignedActuals = new AzureDevopsExternalTaskActuals(effort, remainingEffort, status, getScheduledStart(), getScheduledFinish(), null);
             actuals.add(unassignedActuals);
         } else {
             // One Actual entry per resource.
             for (final User resource : resources) {
-                ExternalTaskActuals resourceActuals = new AzureDevopsExternalTaskActuals(effort == null ? null : (effort / numResources), remainingEffort == null ? null : (remainingEffort / numResources), getStatus(), getScheduledStart(), getScheduledFinish(), resource.getUserId());
+                ExternalTaskActuals resourceActuals = new AzureDevopsExternalTaskActuals(effort == null ? null : (effort / numResources), remainingEffort == null ? null : (remainingEffort / numResources), status, getScheduledStart(), getScheduledFinish(), resource.getUserId());
                 actuals.add(resourceActuals);
             }
         }
@@ -163,10 +194,6 @@ public class WorkItemExternalTask extends ExternalTask {
         children.add(0, child);
     }
 
-    public void setIsWorkLeafTask(boolean b) {
-        this.isWorkLeafTask = true;
-    }
-
     public Double getEffort() {
         return effort;
     }
@@ -180,12 +207,7 @@ public class WorkItemExternalTask extends ExternalTask {
     }
 
     public String getAzureDevopsStatus() {
-        String status = this.workItem.getStringField("System.State");
-        if (status == null) {
-            status = "New";
-        }
-
-        return status;
+        return azureDevopsStatus;
     }
 
     public Iteration getIteration() {
@@ -0,0 +1,393 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.StringDictionary;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact, immutable storage of the fields of a work item.
+ *
+ * A work plan import can hold tens of thousands of work items in memory, and keeping their fields as a JsonObject tree
+ * (one map node, key String and boxed JsonPrimitive per field) takes most of the heap. Instead, fields are stored in a few parallel arrays
+ * sorted by field code:
+ * <ul>
+ *     <li>Field names are replaced by a code from a dictionary shared by all work items.</li>
+ *     <li>Numbers, booleans and dates (as epoch ms) are stored as a primitive long.</li>
+ *     <li>Values of low cardinality fields (State, WorkItemType, IterationPath...) and of identities share a single String instance
+ *     across all work items. These instances are only weakly referenced, so they're garbage collected with the last work item using them.</li>
+ *     <li>Identities are reduced to their unique name and display name, see {@link WorkItemIdentity}.</li>
+ *     <li>Other strings are stored as is, and other object or array values as JsonElement.</li>
+ * </ul>
+ * Apart from identities, values are only converted when it's lossless, so that reading a field returns exactly what Azure DevOps sent.
+ */
+public class WorkItemFields {
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_DOUBLE = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+    private static final byte TYPE_DATE = 4;
+    /** Number that wouldn't be returned as is if converted to long or double, kept as String. */
+    private static final byte TYPE_NUMBER_STRING = 5;
+    private static final byte TYPE_IDENTITY = 6;
+    private static final byte TYPE_ELEMENT = 7;
+
+    /** Fields names are defined by the organization process, so there's a limited number of them. */
+    private static final StringDictionary FIELD_NAMES = new StringDictionary(Integer.MAX_VALUE);
+
+    /** Values that are repeated across work items. Unlike field names, they depend on the data and aren't bounded, so they must be evictable. */
+    private static final Interner<String> SHARED_VALUES = Interners.newWeakInterner();
+
+    /** Fields that have few distinct values across all work items. */
+    private static final Set<String> SHARED_VALUE_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "System.State",
+            "System.Reason",
+            "System.WorkItemType",
+            "System.IterationPath",
+            "System.AreaPath",
+            "System.TeamProject",
+            "System.BoardColumn",
+            "Microsoft.VSTS.Common.Priority",
+            "Microsoft.VSTS.Common.Severity",
+            "Microsoft.VSTS.Common.ValueArea")));
+
+    private final int[] fieldCodes;
+
+    private final byte[] types;
+
+    private final long[] values;
+
+    /** Null if all values are primitives. */
+    private final Object[] references;
+
+    private WorkItemFields(int[] fieldCodes, byte[] types, long[] values, Object[] references) {
+        this.fieldCodes = fieldCodes;
+        this.types = types;
+        this.values = values;
+        this.references = references;
+    }
+
+    public static WorkItemFields fromJsonObject(JsonObject fields) {
+        Builder builder = new Builder();
+        for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+            builder.add(field.getKey(), field.getValue());
+        }
+        return builder.build();
+    }
+
+    public boolean has(String fieldName) {
+        return indexOf(fieldName) >= 0;
+    }
+
+    public int size() {
+        return fieldCodes.length;
+    }
+
+    /**
+     * @return the value of the field as a String, or null if it's missing or not a primitive value.
+     */
+    public String getString(String fieldName) {
+        int i = indexOf(fieldName);
+        return i < 0 ? null : getString(i);
+    }
+
+    private String getString(int i) {
+        switch (types[i]) {
+            case TYPE_STRING:
+            case TYPE_NUMBER_STRING:
+                return (String)references[i];
+            case TYPE_LONG:
+                return Long.toString(values[i]);
+            case TYPE_DOUBLE:
+                return Double.toString(Double.longBitsToDouble(values[i]));
+            case TYPE_BOOLEAN:
+                return values[i] != 0 ? "true" : "false";
+            case TYPE_DATE:
+                return Instant.ofEpochMilli(values[i]).toString();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the value of the field as a number, or null if it's missing or not a primitive value.
+     * @throws NumberFormatException if the value is a String that isn't a number.
+     */
+    public Double getNumber(String fieldName) {
+        int i = indexOf(fieldName);
+        if (i < 0) {
+            return null;
+        }
+
+        switch (types[i]) {
+            case TYPE_LONG:
+                return (double)values[i];
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(values[i]);
+            case TYPE_IDENTITY:
+            case TYPE_ELEMENT:
+                return null;
+            default:
+                return Double.parseDouble(getString(i));
+        }
+    }
+
+    /**
+     * @return the value of the field in epoch ms if it was stored as a date, or null if it's missing or not stored as a date.
+     */
+    public Long getEpochMillis(String fieldName) {
+        int i = indexOf(fieldName);
+        return i >= 0 && types[i] == TYPE_DATE ? values[i] : null;
+    }
+
+    /**
+     * @return the identities held by that field: a single one for identity or String values, or one per element of an array value.
+     * Empty if the field is missing.
+     */
+    public List<WorkItemIdentity> getIdentities(String fieldName) {
+        int i = indexOf(fieldName);
+        if (i < 0) {
+            return Collections.emptyList();
+        }
+
+        if (types[i] == TYPE_IDENTITY) {
+            return Collections.singletonList((WorkItemIdentity)references[i]);
+        }
+
+        JsonElement value = toElement(i);
+        List<WorkItemIdentity> identities = new ArrayList<>();
+        if (value.isJsonArray()) {
+            for (JsonElement element : value.getAsJsonArray()) {
+                WorkItemIdentity identity = WorkItemIdentity.fromElement(element);
+                if (identity != null) {
+                    identities.add(identity);
+                }
+            }
+        } else {
+            WorkItemIdentity identity = WorkItemIdentity.fromElement(value);
+            if (identity != null) {
+                identities.add(identity);
+            }
+        }
+        return identities;
+    }
+
+    /**
+     * @return the value of the field as a JsonElement, or null if it's missing. Identities only have their displayName and uniqueName.
+     */
+    public JsonElement getElement(String fieldName) {
+        int i = indexOf(fieldName);
+        return i < 0 ? null : toElement(i);
+    }
+
+    /**
+     * Rebuilds the fields as a JsonObject. This allocates the whole tree, so it shouldn't be used when reading large sets of work items.
+     */
+    public JsonObject toJsonObject() {
+        JsonObject fields = new JsonObject();
+        for (int i = 0 ; i < fieldCodes.length ; i++) {
+            fields.add(FIELD_NAMES.decode(fieldCodes[i]), toElement(i));
+        }
+        return fields;
+    }
+
+    private JsonElement toElement(int i) {
+        switch (types[i]) {
+            case TYPE_ELEMENT:
+                return (JsonElement)references[i];
+            case TYPE_IDENTITY:
+                return ((WorkItemIdentity)references[i]).toJsonObject();
+            case TYPE_LONG:
+                return new JsonPrimitive(values[i]);
+            case TYPE_DOUBLE:
+                return new JsonPrimitive(Double.longBitsToDouble(values[i]));
+            case TYPE_BOOLEAN:
+                return new JsonPrimitive(values[i] != 0);
+            case TYPE_NUMBER_STRING:
+                return new JsonPrimitive(new BigDecimal((String)references[i]));
+            default:
+                return new JsonPrimitive(getString(i));
+        }
+    }
+
+    private int indexOf(String fieldName) {
+        int fieldCode = FIELD_NAMES.getCode(fieldName);
+        if (fieldCode == StringDictionary.NOT_ENCODED) {
+            return -1;
+        }
+        return Arrays.binarySearch(fieldCodes, fieldCode);
+    }
+
+    /**
+     * Collects the fields of a work item while they are read from JSON. A field added twice keeps its last value, like in a JsonObject.
+     */
+    public static class Builder {
+
+        private int[] fieldCodes = new int[16];
+
+        private byte[] types = new byte[16];
+
+        private long[] values = new long[16];
+
+        private Object[] references = null;
+
+        private int size = 0;
+
+        public Builder add(String fieldName, JsonElement value) {
+            if (value == null || value.isJsonNull()) {
+                return this;
+            }
+
+            if (value.isJsonObject()) {
+                WorkItemIdentity identity = WorkItemIdentity.fromElement(value);
+                if (identity != null) {
+                    return addIdentity(fieldName, identity.getUniqueName(), identity.getDisplayName());
+                }
+            }
+
+            if (!value.isJsonPrimitive()) {
+                return addReference(fieldName, TYPE_ELEMENT, value);
+            }
+
+            JsonPrimitive primitive = value.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                return addBoolean(fieldName, primitive.getAsBoolean());
+            } else if (primitive.isNumber()) {
+                return addNumber(fieldName, primitive.getAsString());
+            } else {
+                return addString(fieldName, primitive.getAsString());
+            }
+        }
+
+        public Builder addString(String fieldName, String value) {
+            if (SHARED_VALUE_FIELDS.contains(fieldName)) {
+                return addReference(fieldName, TYPE_STRING, SHARED_VALUES.intern(value));
+            }
+
+            Long epochMillis = toEpochMillis(value);
+            if (epochMillis != null) {
+                return addPrimitive(fieldName, TYPE_DATE, epochMillis);
+            }
+
+            return addReference(fieldName, TYPE_STRING, value);
+        }
+
+        /**
+         * @param value the number as it appears in the JSON.
+         */
+        public Builder addNumber(String fieldName, String value) {
+            try {
+                if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0) {
+                    long longValue = Long.parseLong(value);
+                    if (Long.toString(longValue).equals(value)) {
+                        return addPrimitive(fieldName, TYPE_LONG, longValue);
+                    }
+                } else {
+                    double doubleValue = Double.parseDouble(value);
+                    if (Double.toString(doubleValue).equals(value)) {
+                        return addPrimitive(fieldName, TYPE_DOUBLE, Double.doubleToRawLongBits(doubleValue));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // Kept as String below.
+            }
+            return addReference(fieldName, TYPE_NUMBER_STRING, value);
+        }
+
+        public Builder addBoolean(String fieldName, boolean value) {
+            return addPrimitive(fieldName, TYPE_BOOLEAN, value ? 1 : 0);
+        }
+
+        public Builder addIdentity(String fieldName, String uniqueName, String displayName) {
+            return addReference(fieldName, TYPE_IDENTITY, new WorkItemIdentity(
+                    uniqueName == null ? null : SHARED_VALUES.intern(uniqueName),
+                    displayName == null ? null : SHARED_VALUES.intern(displayName)));
+        }
+
+        public WorkItemFields build() {
+            return new WorkItemFields(Arrays.copyOf(fieldCodes, size), Arrays.copyOf(types, size), Arrays.copyOf(values, size),
+                    references == null ? null : Arrays.copyOf(references, size));
+        }
+
+        private Builder addPrimitive(String fieldName, byte type, long value) {
+            int i = slot(fieldName);
+            types[i] = type;
+            values[i] = value;
+            if (references != null) {
+                references[i] = null;
+            }
+            return this;
+        }
+
+        private Builder addReference(String fieldName, byte type, Object value) {
+            int i = slot(fieldName);
+            types[i] = type;
+            values[i] = 0;
+            if (references == null) {
+                references = new Object[fieldCodes.length];
+            }
+            references[i] = value;
+            return this;
+        }
+
+        /** @return the index where to store the value of that field, keeping field codes sorted. */
+        private int slot(String fieldName) {
+            int fieldCode = FIELD_NAMES.encode(fieldName);
+            int i = Arrays.binarySearch(fieldCodes, 0, size, fieldCode);
+            if (i >= 0) {
+                return i;
+            }
+
+            i = -i - 1;
+            if (size == fieldCodes.length) {
+                int newLength = fieldCodes.length * 2;
+                fieldCodes = Arrays.copyOf(fieldCodes, newLength);
+                types = Arrays.copyOf(types, newLength);
+                values = Arrays.copyOf(values, newLength);
+                if (references != null) {
+                    references = Arrays.copyOf(references, newLength);
+                }
+            }
+            System.arraycopy(fieldCodes, i, fieldCodes, i + 1, size - i);
+            System.arraycopy(types, i, types, i + 1, size - i);
+            System.arraycopy(values, i, values, i + 1, size - i);
+            if (references != null) {
+                System.arraycopy(references, i, references, i + 1, size - i);
+                references[i] = null;
+            }
+            fieldCodes[i] = fieldCode;
+            size++;
+            return i;
+        }
+
+        /**
+         * @return the epoch ms of that value if it's an ISO-8601 UTC date time that can be formatted back to the exact same String, null otherwise.
+         */
+        private static Long toEpochMillis(String value) {
+            if (value.length() < 20 || value.length() > 24 || value.charAt(4) != '-' || value.charAt(10) != 'T' || value.charAt(value.length() - 1) != 'Z') {
+                return null;
+            }
+            try {
+                Instant instant = Instant.parse(value);
+                long epochMillis = instant.toEpochMilli();
+                return Instant.ofEpochMilli(epochMillis).toString().equals(value) ? epochMillis : null;
+            } catch (DateTimeParseException | ArithmeticException e) {
+                return null;
+            }
+        }
+    }
+}
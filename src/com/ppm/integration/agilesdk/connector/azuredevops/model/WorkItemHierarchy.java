@@ -0,0 +1,95 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parent/child structure of the imported work items, computed once for the whole work plan.
+ *
+ * Tasks are identified by their index in import order, and the parent of each task is stored as the index of the parent task
+ * (or NO_PARENT if the parent is not imported), so that every grouping mode can build its hierarchy from it in a single pass.
+ */
+public class WorkItemHierarchy {
+
+    private static final int NO_PARENT = -1;
+
+    private final WorkItemExternalTask[] tasks;
+
+    private final int[] parentIndexes;
+
+    /**
+     * @param externalTasks all the imported tasks, in import order. Work item IDs must be unique.
+     * @param projectId the imported project. Work items whose parent is in another project are root tasks.
+     */
+    public WorkItemHierarchy(Collection<WorkItemExternalTask> externalTasks, String projectId) {
+        this.tasks = externalTasks.toArray(new WorkItemExternalTask[externalTasks.size()]);
+        this.parentIndexes = new int[tasks.length];
+
+        Map<String, Integer> indexesByWorkItemId = new HashMap<>(tasks.length * 4 / 3 + 1);
+        for (int i = 0 ; i < tasks.length ; i++) {
+            indexesByWorkItemId.put(tasks[i].getWorkItemId(), i);
+        }
+
+        for (int i = 0 ; i < tasks.length ; i++) {
+            parentIndexes[i] = NO_PARENT;
+            WorkItem workItem = tasks[i].getWorkItem();
+            String parentId = workItem.getParentWorkItemId();
+            if (parentId == null) {
+                continue;
+            }
+            // Parent project is unknown when relations are not retrieved, but work item IDs are unique across all projects of the organization.
+            String parentProjectId = workItem.getParentProjectId();
+            Integer parentIndex = indexesByWorkItemId.get(parentId);
+            if (parentIndex != null && (parentProjectId == null || projectId.equalsIgnoreCase(parentProjectId))) {
+                parentIndexes[i] = parentIndex;
+            }
+        }
+    }
+
+    public int size() {
+        return tasks.length;
+    }
+
+    public WorkItemExternalTask getTask(int index) {
+        return tasks[index];
+    }
+
+    /**
+     * Adds each task as a child of its parent if both are in the same group, and returns the root tasks of each group,
+     * i.e. the tasks whose parent is not imported or is in another group. Children and root tasks keep the import order.
+     *
+     * @param groupIndexes group of each task, between 0 and groupCount - 1.
+     * @return the root tasks of each group, by group index.
+     */
+    public List<List<WorkItemExternalTask>> linkChildren(int[] groupIndexes, int groupCount) {
+        List<List<WorkItemExternalTask>> rootTasksByGroup = new ArrayList<>(groupCount);
+        for (int group = 0 ; group < groupCount ; group++) {
+            rootTasksByGroup.add(new ArrayList<>());
+        }
+
+        for (int i = 0 ; i < tasks.length ; i++) {
+            int parentIndex = parentIndexes[i];
+            if (parentIndex != NO_PARENT && groupIndexes[parentIndex] == groupIndexes[i]) {
+                // Another imported work item is the parent - let's add this one as the child.
+                tasks[parentIndex].addChild(tasks[i]);
+            } else {
+                // The parent is not imported (or in another group), so we'll import this work item as a root task even if it has a parent defined in Azure DevOps
+                rootTasksByGroup.get(groupIndexes[i]).add(tasks[i]);
+            }
+        }
+
+        return rootTasksByGroup;
+    }
+
+    /**
+     * Links all the tasks as a single group.
+     *
+     * @return the root tasks.
+     */
+    public List<WorkItemExternalTask> linkChildren() {
+        return linkChildren(new int[tasks.length], 1).get(0);
+    }
+}
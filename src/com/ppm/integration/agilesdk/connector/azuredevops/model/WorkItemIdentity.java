@@ -0,0 +1,71 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Value of an identity field (System.AssignedTo, System.CreatedBy...), reduced to what's needed to find the matching PPM user.
+ *
+ * Azure DevOps returns identities as objects with links, avatar URL, descriptor, etc. that are never used by the connector,
+ * so only the unique name (usually the email) and display name are kept.
+ */
+public class WorkItemIdentity {
+
+    private final String uniqueName;
+
+    private final String displayName;
+
+    public WorkItemIdentity(String uniqueName, String displayName) {
+        this.uniqueName = uniqueName;
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return the identity held by that field value, or null if it's neither an identity object nor a String.
+     */
+    public static WorkItemIdentity fromElement(JsonElement value) {
+        if (value == null || value.isJsonNull() || value.isJsonArray()) {
+            return null;
+        }
+
+        if (value.isJsonPrimitive()) {
+            return new WorkItemIdentity(value.getAsString(), value.getAsString());
+        }
+
+        JsonObject identity = value.getAsJsonObject();
+        String uniqueName = getString(identity, "uniqueName");
+        if (uniqueName == null) {
+            uniqueName = getString(identity, "name");
+        }
+        String displayName = getString(identity, "displayName");
+
+        return uniqueName == null && displayName == null ? null : new WorkItemIdentity(uniqueName, displayName);
+    }
+
+    private static String getString(JsonObject object, String memberName) {
+        JsonElement member = object.get(memberName);
+        return member != null && member.isJsonPrimitive() ? member.getAsString() : null;
+    }
+
+    /**
+     * @return the unique name of the identity (email or domain\login), or its name if it has no unique name.
+     */
+    public String getUniqueName() {
+        return uniqueName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public JsonObject toJsonObject() {
+        JsonObject identity = new JsonObject();
+        if (displayName != null) {
+            identity.addProperty("displayName", displayName);
+        }
+        if (uniqueName != null) {
+            identity.addProperty("uniqueName", uniqueName);
+        }
+        return identity;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.model;
+
+import com.hp.ppm.integration.service.impl.ProjectUtilService;
+import com.mercury.itg.core.impl.SpringContainerFactory;
+import com.ppm.integration.agilesdk.ValueSet;
+import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsService;
+import com.ppm.integration.agilesdk.connector.azuredevops.service.PpmUserResolver;
+import com.ppm.integration.agilesdk.pm.WorkPlanIntegrationContext;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything that is the same for all the tasks of a work plan import, resolved once when the import starts
+ * and then shared by all {@link WorkItemExternalTask}s, so that creating a task doesn't require any PPM or Azure DevOps call.
+ *
+ * Not thread safe - one instance per import.
+ */
+public class WorkPlanImportContext {
+
+    private final ValueSet config;
+
+    private final AzureDevopsService service;
+
+    private final Long ppmProjectId;
+
+    private final PpmUserResolver userResolver;
+
+    private final TaskStatusClassifier statusClassifier;
+
+    /** Map<Azure DevOps project name, IterationIndex> */
+    private final Map<String, IterationIndex> iterationIndexes = new HashMap<>();
+
+    public WorkPlanImportContext(WorkPlanIntegrationContext context, ValueSet config, AzureDevopsService service) {
+        this.config = config;
+        this.service = service;
+        this.ppmProjectId = getPpmProjectId(context);
+        this.userResolver = new PpmUserResolver(service.getUserProvider(), ppmProjectId);
+        this.statusClassifier = new TaskStatusClassifier(config);
+    }
+
+    private static Long getPpmProjectId(WorkPlanIntegrationContext context) {
+        // There seems to be a bug to retrieve project ID when synching project from work plan, so we get project ID from task ID.
+        if (context != null && context.currentTask() != null) {
+            return ((ProjectUtilService) SpringContainerFactory.getBean("projectUtilService")).getWorkPlan(context.currentTask().getWorkplanId()).getProject().getId();
+        }
+        return null;
+    }
+
+    public ValueSet getConfig() {
+        return config;
+    }
+
+    public Long getPpmProjectId() {
+        return ppmProjectId;
+    }
+
+    public PpmUserResolver getUserResolver() {
+        return userResolver;
+    }
+
+    public TaskStatusClassifier getStatusClassifier() {
+        return statusClassifier;
+    }
+
+    /**
+     * @return the iteration with that path, from the (cached) iterations of the project in the first segment of the path. Null if not found.
+     */
+    public Iteration getIteration(String iterationPath) {
+        if (StringUtils.isBlank(iterationPath) || !(iterationPath.contains("\\"))) {
+            return null;
+        }
+
+        String projectKey = iterationPath.substring(0, iterationPath.indexOf('\\')).toLowerCase();
+
+        IterationIndex iterationIndex = iterationIndexes.get(projectKey);
+        if (iterationIndex == null) {
+            iterationIndex = service.getIterationIndex(projectKey);
+            iterationIndexes.put(projectKey, iterationIndex);
+        }
+
+        return iterationIndex.get(iterationPath);
+    }
+}
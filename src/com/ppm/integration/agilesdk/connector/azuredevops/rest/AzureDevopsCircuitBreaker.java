@@ -0,0 +1,113 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.kintana.core.logging.LogManager;
+import com.kintana.core.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops sending requests to an Azure DevOps organization for a while when it keeps failing (network errors, timeouts, 5xx),
+ * so that PPM threads fail fast instead of all waiting for their own timeout while Azure DevOps is degraded.
+ *
+ * After {@link #FAILURE_THRESHOLD} consecutive failures, the circuit opens and all requests fail immediately for {@link #OPEN_DURATION_SECONDS}.
+ * After that, a single trial request is let through: if it succeeds the circuit closes, otherwise it opens again.
+ *
+ * There is one circuit breaker per organization, shared by all service instances.
+ */
+public class AzureDevopsCircuitBreaker {
+
+    private final static Logger logger = LogManager.getLogger(AzureDevopsCircuitBreaker.class);
+
+    private static final int FAILURE_THRESHOLD = 5;
+
+    private static final long OPEN_DURATION_SECONDS = 30;
+
+    private static final Map<String, AzureDevopsCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures = 0;
+
+    private long openedAt = 0;
+
+    private boolean trialRequestInFlight = false;
+
+    public static AzureDevopsCircuitBreaker get(AzureDevopsRestConfig config) {
+        return circuitBreakers.computeIfAbsent(config.getOrganizationUrl().toLowerCase(), key -> new AzureDevopsCircuitBreaker(config.getOrganizationUrl()));
+    }
+
+    private AzureDevopsCircuitBreaker(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return true if the request can be sent, false if it should fail right away. Every permitted request must report its result.
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < TimeUnit.SECONDS.toMillis(OPEN_DURATION_SECONDS)) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialRequestInFlight = true;
+                return true;
+            case HALF_OPEN:
+                // Only one trial request at a time.
+                if (trialRequestInFlight) {
+                    return false;
+                }
+                trialRequestInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * To be called for any response showing that Azure DevOps is up, including 4xx errors.
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Azure DevOps organization " + name + " is responding again, closing circuit breaker");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialRequestInFlight = false;
+    }
+
+    /**
+     * To be called when a permitted request was finally not sent.
+     */
+    public synchronized void onNotSent() {
+        trialRequestInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialRequestInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+            logger.warn("Azure DevOps organization " + name + " failed " + consecutiveFailures + " consecutive requests, failing all requests for the next " + OPEN_DURATION_SECONDS + " seconds");
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.kintana.core.logging.LogManager;
+import com.kintana.core.logging.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits how many REST calls are in flight at the same time against an Azure DevOps organization, adjusting that limit to the observed latency.
+ *
+ * The limit grows additively (about +1 per round of requests) while latencies stay close to their baseline,
+ * and decreases multiplicatively when latencies inflate or when Azure DevOps starts throttling (429), so that
+ * the connector runs as many requests in parallel as the organization can take without being throttled.
+ *
+ * Latencies are compared to the baseline of the same kind of request (HTTP method + path), since a WIQL query
+ * and a single project GET have very different response times.
+ *
+ * There is one limiter per organization, shared by all service instances. Its bounds come from the first config that uses it.
+ *
+ * Waiting uses a ReentrantLock rather than a monitor, so that virtual threads waiting for a permit don't pin their carrier thread.
+ */
+public class AzureDevopsConcurrencyLimiter {
+
+    private final static Logger logger = LogManager.getLogger(AzureDevopsConcurrencyLimiter.class);
+
+    /** Latency can grow up to that ratio of the baseline before we consider the organization is overloaded. */
+    private static final double LATENCY_TOLERANCE = 2.0d;
+
+    /** Decrease ratio when latency inflates. */
+    private static final double LATENCY_BACKOFF_RATIO = 0.9d;
+
+    /** Decrease ratio when requests are throttled. */
+    private static final double THROTTLED_BACKOFF_RATIO = 0.5d;
+
+    /** Limit is decreased at most once in that period, so that a burst of slow or throttled responses only counts once. */
+    private static final long MIN_DECREASE_INTERVAL_MS = 1000L;
+
+    /** How fast the baseline latency moves up to follow slower responses. It goes down to any faster response immediately. */
+    private static final double BASELINE_DRIFT = 0.01d;
+
+    private static final Map<String, AzureDevopsConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    private final int minLimit = 1;
+
+    private final int maxLimit;
+
+    private double limit;
+
+    private int inFlight = 0;
+
+    private long lastDecrease = 0;
+
+    /** Map<Kind of request, baseline latency in ns> */
+    private final Map<String, Double> baselineLatencies = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    public enum Outcome {
+        /** Request got a response, its latency is meaningful. */
+        SUCCESS,
+        /** Request was rejected because Azure DevOps is throttling. */
+        THROTTLED,
+        /** Request failed for another reason (network error, 4xx...). Its latency says nothing about the load. */
+        IGNORED
+    }
+
+    public static AzureDevopsConcurrencyLimiter get(AzureDevopsRestConfig config) {
+        return limiters.computeIfAbsent(config.getOrganizationUrl().toLowerCase(),
+                key -> new AzureDevopsConcurrencyLimiter(config.getOrganizationUrl(), config.getMaxParallelRequests(), config.getMaxConnectionsPerRoute()));
+    }
+
+    private AzureDevopsConcurrencyLimiter(String name, int initialLimit, int maxLimit) {
+        this.name = name;
+        this.maxLimit = Math.max(minLimit, maxLimit);
+        this.limit = Math.max(minLimit, Math.min(initialLimit, this.maxLimit));
+    }
+
+    /**
+     * Waits until less requests than the current limit are in flight. Every successful call must be followed by a call to {@link #release}.
+     *
+     * @return false if no permit became available before the deadline (epoch ms).
+     */
+    public boolean acquire(long deadline) throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int)limit) {
+                long waitMs = deadline - System.currentTimeMillis();
+                if (waitMs <= 0) {
+                    return false;
+                }
+                permitReleased.await(waitMs, TimeUnit.MILLISECONDS);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param requestKind identifies the kind of request, so that its latency is compared with similar requests.
+     * @param latencyNanos time until the response status was received.
+     */
+    public void release(String requestKind, long latencyNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            releasePermit(requestKind, latencyNanos, outcome);
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releasePermit(String requestKind, long latencyNanos, Outcome outcome) {
+        // Only grow the limit if we were actually using it, otherwise it would grow forever when the connector is idle.
+        boolean limitWasReached = inFlight >= (int)limit;
+
+        inFlight--;
+
+        switch (outcome) {
+            case THROTTLED:
+                decrease(THROTTLED_BACKOFF_RATIO, "requests throttled");
+                break;
+            case SUCCESS:
+                Double baseline = baselineLatencies.get(requestKind);
+                if (baseline == null || latencyNanos < baseline) {
+                    baselineLatencies.put(requestKind, (double)latencyNanos);
+                } else {
+                    baselineLatencies.put(requestKind, baseline + (latencyNanos - baseline) * BASELINE_DRIFT);
+                }
+
+                if (baseline != null && latencyNanos > baseline * LATENCY_TOLERANCE) {
+                    decrease(LATENCY_BACKOFF_RATIO, "latency inflated from " + TimeUnit.NANOSECONDS.toMillis(baseline.longValue()) + "ms to " + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + "ms for " + requestKind);
+                } else if (limitWasReached && limit < maxLimit) {
+                    // Additive increase: about +1 once all the current permits have completed.
+                    limit = Math.min(maxLimit, limit + 1.0d / limit);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void decrease(double ratio, String reason) {
+        long now = System.currentTimeMillis();
+        if (now - lastDecrease < MIN_DECREASE_INTERVAL_MS) {
+            return;
+        }
+        lastDecrease = now;
+        double newLimit = Math.max(minLimit, limit * ratio);
+        if ((int)newLimit < (int)limit) {
+            logger.debug("Reducing concurrent requests to " + name + " from " + (int)limit + " to " + (int)newLimit + ": " + reason);
+        }
+        limit = newLimit;
+    }
+
+    /**
+     * @return the current maximum number of concurrent requests.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int)limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the highest limit this limiter can reach. Callers can submit that many requests in parallel and let the limiter decide how many actually run.
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.kintana.core.logging.LogManager;
+import com.kintana.core.logging.Logger;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-wide registry of pooled HTTP clients, one per Azure DevOps organization URL + proxy + pool settings.
+ *
+ * Connections (and their TLS sessions) are kept alive and reused across REST calls and across service instances,
+ * so only the first call to an organization pays for the TCP + TLS handshake.
+ * A config with different pool settings (connections, idle timeout, timeouts) gets its own client.
+ *
+ * Idle connections are evicted by a background daemon thread. Clients are only closed by {@link #reset(AzureDevopsRestConfig)},
+ * when the connection to the organization is tested after a configuration change.
+ */
+public class AzureDevopsHttpClientRegistry {
+
+    private final static Logger logger = LogManager.getLogger(AzureDevopsHttpClientRegistry.class);
+
+    /** Connections validated again before reuse if they have been idle for that long. */
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    /** Keep-alive duration used when Azure DevOps doesn't send a Keep-Alive header. */
+    private static final long DEFAULT_KEEP_ALIVE_MS = 60000L;
+
+    private static final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+
+    private AzureDevopsHttpClientRegistry() {
+    }
+
+    public static CloseableHttpClient getHttpClient(AzureDevopsRestConfig config) {
+        return clients.computeIfAbsent(config.getConnectionPoolKey(), key -> createHttpClient(config));
+    }
+
+    /**
+     * Closes all the clients of the organization & proxy targeted by this config, whatever their pool settings,
+     * so that the next calls open new connections with the current settings.
+     */
+    public static void reset(AzureDevopsRestConfig config) {
+        String targetKey = config.getConnectionTargetKey();
+        Iterator<Map.Entry<String, CloseableHttpClient>> it = clients.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, CloseableHttpClient> entry = it.next();
+            if (entry.getKey().startsWith(targetKey)) {
+                it.remove();
+                try {
+                    entry.getValue().close();
+                } catch (IOException e) {
+                    logger.warn("Error when closing pooled HTTP client for " + entry.getKey(), e);
+                }
+            }
+        }
+    }
+
+    private static CloseableHttpClient createHttpClient(AzureDevopsRestConfig config) {
+
+        logger.debug("Creating pooled HTTP client for " + config.getConnectionPoolKey());
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> {
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE_MS;
+                })
+                .setDefaultRequestConfig(config.getRequestConfig())
+                // Compression is negotiated & decoded by AzureDevopsRestClient, which keeps metrics of the bytes saved.
+                .disableContentCompression()
+                .evictExpiredConnections()
+                .evictIdleConnections(config.getIdleConnectionTimeoutSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+}
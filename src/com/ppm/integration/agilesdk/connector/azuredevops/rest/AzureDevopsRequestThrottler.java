@@ -0,0 +1,267 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.kintana.core.logging.LogManager;
+import com.kintana.core.logging.Logger;
+import org.apache.commons.lang.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of the Azure DevOps rate limiting state of an organization + credentials, and schedules outgoing requests accordingly.
+ *
+ * Azure DevOps reports the throttling state in the headers of every response:
+ * <ul>
+ *     <li>Retry-After: number of seconds to wait before sending another request.</li>
+ *     <li>X-RateLimit-Limit / X-RateLimit-Remaining: TSTU (Throughput Unit) budget of the identity, and what's left of it.</li>
+ *     <li>X-RateLimit-Delay: how long (in seconds) the request was delayed by Azure DevOps.</li>
+ * </ul>
+ * Instead of waiting to be rejected with a 429 (TF400733), requests are spaced out as soon as Azure DevOps starts delaying them,
+ * and held until Retry-After when it is sent.
+ *
+ * Rate limits apply per identity, so there's one throttler per tenant (organization + PAT), shared by all service instances.
+ */
+public class AzureDevopsRequestThrottler {
+
+    private final static Logger logger = LogManager.getLogger(AzureDevopsRequestThrottler.class);
+
+    /** Azure DevOps error code sent when a request is rejected because of rate limiting. */
+    public static final String THROTTLED_ERROR_CODE = "TF400733";
+
+    /** When less than this ratio of the TSTU budget remains, requests are spaced out even if Azure DevOps doesn't delay them yet. */
+    private static final double LOW_REMAINING_RATIO = 0.1d;
+
+    /** Spacing between requests when the TSTU budget is low but no delay was reported. */
+    private static final long LOW_REMAINING_SPACING_MS = 250L;
+
+    /** We never space out requests by more than this, Retry-After is used for longer waits. */
+    private static final long MAX_SPACING_MS = 5000L;
+
+    private static final long BACKOFF_BASE_MS = 1000L;
+
+    private static final long BACKOFF_MAX_MS = 30000L;
+
+    private static final Map<String, AzureDevopsRequestThrottler> throttlers = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    /** No request should be sent before that time (epoch ms). */
+    private long blockedUntil = 0;
+
+    /** Minimum time between two requests, based on the last reported delay. */
+    private long spacingMs = 0;
+
+    /** Time (epoch ms) reserved for the last scheduled request. */
+    private long lastScheduledRequest = 0;
+
+    private Double rateLimitRemaining = null;
+
+    private Double rateLimitLimit = null;
+
+    private double lastReportedDelaySeconds = 0;
+
+    private long throttledResponses = 0;
+
+    private long lastUpdate = 0;
+
+    public static AzureDevopsRequestThrottler get(AzureDevopsRestConfig config) {
+        return throttlers.computeIfAbsent(config.getTenantKey(), key -> new AzureDevopsRequestThrottler(config.getOrganizationUrl()));
+    }
+
+    private AzureDevopsRequestThrottler(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Blocks the calling thread until a request can be sent, according to the last known throttling state.
+     *
+     * @param deadline time (epoch ms) after which the caller would rather fail than keep waiting.
+     * @return false if the request could not be scheduled before the deadline.
+     */
+    public boolean awaitTurn(long deadline) throws InterruptedException {
+        long sendAt;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            sendAt = Math.max(now, Math.max(blockedUntil, lastScheduledRequest + spacingMs));
+            if (sendAt > deadline) {
+                return false;
+            }
+            lastScheduledRequest = sendAt;
+        }
+
+        long waitMs = sendAt - System.currentTimeMillis();
+        if (waitMs > 0) {
+            logger.debug("Delaying request to " + name + " by " + waitMs + "ms because of Azure DevOps rate limiting");
+            Thread.sleep(waitMs);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the throttling state from the headers of the response. Must be called for every response received.
+     *
+     * @return the Retry-After delay in ms sent with the response, or 0 if there was none.
+     */
+    public long onResponse(HttpResponse response) {
+        long retryAfterMs = getRetryAfterMs(response);
+        Double remaining = getDoubleHeader(response, "X-RateLimit-Remaining");
+        Double limit = getDoubleHeader(response, "X-RateLimit-Limit");
+        Double delay = getDoubleHeader(response, "X-RateLimit-Delay");
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            lastUpdate = now;
+
+            if (retryAfterMs > 0) {
+                blockedUntil = Math.max(blockedUntil, now + retryAfterMs);
+            }
+
+            if (remaining != null || limit != null || delay != null) {
+                rateLimitRemaining = remaining;
+                rateLimitLimit = limit;
+                lastReportedDelaySeconds = delay == null ? 0 : delay;
+            } else {
+                // No rate limit header: Azure DevOps is not delaying this identity anymore.
+                rateLimitRemaining = null;
+                rateLimitLimit = null;
+                lastReportedDelaySeconds = 0;
+            }
+
+            if (lastReportedDelaySeconds > 0) {
+                spacingMs = Math.min(MAX_SPACING_MS, (long)(lastReportedDelaySeconds * 1000));
+            } else if (isBudgetLow()) {
+                spacingMs = LOW_REMAINING_SPACING_MS;
+            } else {
+                spacingMs = 0;
+            }
+        }
+
+        return retryAfterMs;
+    }
+
+    /**
+     * Records that a request was rejected because of throttling, and computes how long to wait before retrying it.
+     *
+     * @param attempt number of times this request was already retried.
+     * @param retryAfterMs Retry-After sent with the rejected response, or 0.
+     * @return the delay in ms before the next attempt, with jitter so that parallel requests don't all retry at the same time.
+     */
+    public long onThrottled(int attempt, long retryAfterMs) {
+        long backoff = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(attempt, 16));
+        long jitteredBackoff = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        long delay = Math.max(retryAfterMs, jitteredBackoff);
+
+        synchronized (this) {
+            throttledResponses++;
+            blockedUntil = Math.max(blockedUntil, System.currentTimeMillis() + delay);
+        }
+
+        logger.warn("Request to " + name + " throttled by Azure DevOps, retrying in " + delay + "ms. " + getThrottleState());
+        return delay;
+    }
+
+    private boolean isBudgetLow() {
+        return rateLimitRemaining != null && rateLimitLimit != null && rateLimitLimit > 0 && rateLimitRemaining / rateLimitLimit < LOW_REMAINING_RATIO;
+    }
+
+    public synchronized ThrottleState getThrottleState() {
+        return new ThrottleState(rateLimitRemaining, rateLimitLimit, lastReportedDelaySeconds, Math.max(0, blockedUntil - System.currentTimeMillis()), spacingMs, throttledResponses, lastUpdate);
+    }
+
+    private static long getRetryAfterMs(HttpResponse response) {
+        Double retryAfter = getDoubleHeader(response, "Retry-After");
+        return retryAfter == null || retryAfter <= 0 ? 0 : (long)(retryAfter * 1000);
+    }
+
+    private static Double getDoubleHeader(HttpResponse response, String headerName) {
+        Header header = response.getFirstHeader(headerName);
+        if (header == null || StringUtils.isBlank(header.getValue())) {
+            return null;
+        }
+        try {
+            return Double.valueOf(header.getValue().trim());
+        } catch (NumberFormatException e) {
+            // Retry-After can also be an HTTP date, but Azure DevOps always sends seconds.
+            return null;
+        }
+    }
+
+    /**
+     * Snapshot of the rate limiting state of an organization, as last reported by Azure DevOps.
+     */
+    public static class ThrottleState {
+
+        private final Double rateLimitRemaining;
+
+        private final Double rateLimitLimit;
+
+        private final double lastReportedDelaySeconds;
+
+        private final long blockedForMs;
+
+        private final long spacingMs;
+
+        private final long throttledResponses;
+
+        private final long lastUpdate;
+
+        private ThrottleState(Double rateLimitRemaining, Double rateLimitLimit, double lastReportedDelaySeconds, long blockedForMs, long spacingMs, long throttledResponses, long lastUpdate) {
+            this.rateLimitRemaining = rateLimitRemaining;
+            this.rateLimitLimit = rateLimitLimit;
+            this.lastReportedDelaySeconds = lastReportedDelaySeconds;
+            this.blockedForMs = blockedForMs;
+            this.spacingMs = spacingMs;
+            this.throttledResponses = throttledResponses;
+            this.lastUpdate = lastUpdate;
+        }
+
+        /** @return Remaining TSTUs, or null if Azure DevOps isn't reporting rate limits (i.e. the identity isn't close to its budget). */
+        public Double getRateLimitRemaining() {
+            return rateLimitRemaining;
+        }
+
+        public Double getRateLimitLimit() {
+            return rateLimitLimit;
+        }
+
+        public double getLastReportedDelaySeconds() {
+            return lastReportedDelaySeconds;
+        }
+
+        /** @return How long new requests will be held before being sent, because of a Retry-After. */
+        public long getBlockedForMs() {
+            return blockedForMs;
+        }
+
+        public long getSpacingMs() {
+            return spacingMs;
+        }
+
+        /** @return How many responses were rejected because of throttling since the connector was loaded. */
+        public long getThrottledResponses() {
+            return throttledResponses;
+        }
+
+        public long getLastUpdate() {
+            return lastUpdate;
+        }
+
+        public boolean isThrottling() {
+            return blockedForMs > 0 || spacingMs > 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Throttle state: remaining TSTUs=" + (rateLimitRemaining == null ? "n/a" : rateLimitRemaining) + "/" + (rateLimitLimit == null ? "n/a" : rateLimitLimit)
+                    + ", last delay=" + lastReportedDelaySeconds + "s, blocked for=" + blockedForMs + "ms, spacing=" + spacingMs + "ms, throttled responses=" + throttledResponses;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM-wide HTTP cache of GET responses, used for Azure DevOps metadata end points (projects, work item types, fields, iterations...)
+ * that rarely change but can be large.
+ *
+ * The body of each response is stored with its validators (ETag and Last-Modified). While an entry is younger than the TTL
+ * of its end point, it is returned without any request. After that, it is revalidated with a conditional GET, and a 304 Not Modified
+ * response is served from the stored body, so only the first call pays for the full payload.
+ *
+ * The stored body is parsed again by the caller's response reader on every hit, so each caller gets its own objects and can modify them.
+ * Entries are keyed by tenant (organization + PAT) and URL, and the total size of stored bodies is bounded.
+ */
+public class AzureDevopsResponseCache {
+
+    /** Max number of characters of all cached responses bodies (~40MB). */
+    private static final long MAX_CACHED_CHARS = 20L * 1024 * 1024;
+
+    /** Responses not used for that long are evicted, even if they could be revalidated. */
+    private static final long EXPIRE_AFTER_ACCESS_HOURS = 12;
+
+    private static final AzureDevopsResponseCache instance = new AzureDevopsResponseCache();
+
+    private final Cache<String, CachedResponse> responses = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_CACHED_CHARS)
+            .weigher((String key, CachedResponse response) -> response.getBody().length())
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS_HOURS, TimeUnit.HOURS)
+            .build();
+
+    public static AzureDevopsResponseCache getInstance() {
+        return instance;
+    }
+
+    private AzureDevopsResponseCache() {
+    }
+
+    CachedResponse get(String tenantKey, String relativeUrl) {
+        return responses.getIfPresent(tenantKey + "|" + relativeUrl);
+    }
+
+    void put(String tenantKey, String relativeUrl, CachedResponse response) {
+        if (response.hasValidators() || response.getTtlMs() > 0) {
+            responses.put(tenantKey + "|" + relativeUrl, response);
+        }
+    }
+
+    /**
+     * Removes all the responses cached for this tenant.
+     */
+    public void invalidate(String tenantKey) {
+        final String prefix = tenantKey + "|";
+        responses.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    /**
+     * A successful GET response body with its validators.
+     */
+    static class CachedResponse {
+
+        private final String body;
+
+        private final String eTag;
+
+        private final String lastModified;
+
+        private final long ttlMs;
+
+        private final long validatedAt = System.currentTimeMillis();
+
+        CachedResponse(String body, String eTag, String lastModified, long ttlMs) {
+            this.body = body;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.ttlMs = ttlMs;
+        }
+
+        /**
+         * @return the same response, valid for another TTL period (after a 304 Not Modified).
+         */
+        CachedResponse revalidated(long newTtlMs) {
+            return new CachedResponse(body, eTag, lastModified, newTtlMs);
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() - validatedAt < ttlMs;
+        }
+
+        boolean hasValidators() {
+            return eTag != null || lastModified != null;
+        }
+
+        String getBody() {
+            return body;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+        long getTtlMs() {
+            return ttlMs;
+        }
+    }
+}
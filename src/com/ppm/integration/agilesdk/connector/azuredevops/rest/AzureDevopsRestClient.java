@@ -9,23 +9,38 @@ package com.ppm.integration.agilesdk.connector.azuredevops.rest;
 import com.kintana.core.logging.LogManager;
 import com.kintana.core.logging.Logger;
 import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.ConnectorExecutors;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.SingleFlight;
 import org.apache.commons.lang.StringUtils;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingInputStream;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpHost;
-import org.apache.http.client.config.RequestConfig;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.DeflateInputStream;
 import org.apache.http.client.methods.*;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.util.EntityUtils;
 
 
 import javax.ws.rs.core.MediaType;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 /** Unlike the other AgileSDK connectors that use Wink REST Client, AzureDevOps uses Apache HttpClient (which is only bundled in PPM 2023+) because
  * Azure DevOps REST API requires HTTP PATCH to update work items, and Java HttpUrlConnection (used in Wink REST Client) doesn't support it...
@@ -34,6 +49,32 @@ public class AzureDevopsRestClient {
 
     private final static Logger logger = LogManager.getLogger(AzureDevopsRestClient.class);
 
+    /** Numeric IDs and GUIDs in URL paths. */
+    private static final Pattern ID_PATH_SEGMENT = Pattern.compile("/(\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F-]{27})(?=/|$)");
+
+    /** How many times a failed idempotent request is retried. Throttled requests are retried until the throttling deadline instead. */
+    private static final int MAX_RETRIES = 2;
+
+    private static final long RETRY_BASE_DELAY_MS = 500L;
+
+    private static final int DECOMPRESSION_BUFFER_SIZE = 8192;
+
+    /** Shared by all client instances, so that identical requests made through different services are coalesced too. */
+    private static final SingleFlight<String, String> IN_FLIGHT_GETS = new SingleFlight<>();
+
+    /** Cached bodies are already Strings and immutable, so they're returned without being copied. */
+    private static final ResponseReader<String> STRING_READER = new ResponseReader<String>() {
+        @Override
+        public String read(Reader content) throws IOException {
+            return readFully(content);
+        }
+
+        @Override
+        public String readString(String body) {
+            return body;
+        }
+    };
+
     private AzureDevopsRestConfig restConfig;
 
 
@@ -41,12 +82,7 @@ public class AzureDevopsRestClient {
         this.restConfig = config;
     }
 
-    // Azure DevOps REST API needs a very specific content-type when doing PATCH.
-    private String executeHttpRequest(String relativeUrl, String httpMethod, String jsonPayload, boolean usePatchJsonContentType) {
-
-        String fullUrl = restConfig.getOrganizationUrl() + relativeUrl;
-
-        logger.debug("url: " + fullUrl);
+    private HttpRequestBase createHttpRequest(String fullUrl, String httpMethod, RestOperation operation, String jsonPayload, boolean usePatchJsonContentType, AzureDevopsResponseCache.CachedResponse cachedResponse) {
 
         HttpRequestBase httpRequest = null;
 
@@ -73,100 +109,474 @@ public class AzureDevopsRestClient {
         }
 
         httpRequest.addHeader(new BasicHeader("accept", MediaType.APPLICATION_JSON));
+        httpRequest.addHeader(new BasicHeader("Accept-Encoding", "gzip, deflate"));
+
+        if (cachedResponse != null) {
+            // Conditional GET: Azure DevOps returns 304 without any content if the cached response is still valid.
+            if (cachedResponse.getETag() != null) {
+                httpRequest.addHeader(new BasicHeader("If-None-Match", cachedResponse.getETag()));
+            }
+            if (cachedResponse.getLastModified() != null) {
+                httpRequest.addHeader(new BasicHeader("If-Modified-Since", cachedResponse.getLastModified()));
+            }
+        }
         httpRequest.addHeader(new BasicHeader("Authorization", restConfig.getBasicAuthorizationHeaderValue()));
         // Following header is required for easy HTTP request tracing in systems such as DataPower.
         httpRequest.addHeader(new BasicHeader("X-B3-TraceId", UUID.randomUUID().toString()));
 
 
-        // Proxy setting
-        if (!StringUtils.isBlank(restConfig.getProxyHost())) {
-            HttpHost proxy = new HttpHost(restConfig.getProxyHost(), restConfig.getProxyPort(), "http");
+        // Proxy setting & timeouts of this kind of operation, connection pool is shared by all requests of this organization.
+        httpRequest.setConfig(restConfig.getRequestConfig(operation));
 
-            RequestConfig config = RequestConfig.custom()
-                    .setProxy(proxy)
-                    .build();
-            httpRequest.setConfig(config);
+        return httpRequest;
+    }
+
+    // Azure DevOps REST API needs a very specific content-type when doing PATCH.
+    private <T> T executeHttpRequest(String relativeUrl, String httpMethod, RestOperation operation, String jsonPayload, boolean usePatchJsonContentType, ResponseReader<T> responseReader) {
+        return executeHttpRequest(relativeUrl, httpMethod, operation, jsonPayload, usePatchJsonContentType, null, responseReader);
+    }
+
+    /**
+     * @param cacheTtlMs if not null, the response is stored in the {@link AzureDevopsResponseCache} and served from it for that long, then revalidated.
+     */
+    private <T> T executeHttpRequest(String relativeUrl, String httpMethod, RestOperation operation, String jsonPayload, boolean usePatchJsonContentType, Long cacheTtlMs, ResponseReader<T> responseReader) {
+
+        String fullUrl = restConfig.getOrganizationUrl() + relativeUrl;
+
+        AzureDevopsResponseCache responseCache = AzureDevopsResponseCache.getInstance();
+        AzureDevopsResponseCache.CachedResponse cachedResponse = cacheTtlMs == null ? null : responseCache.get(restConfig.getTenantKey(), relativeUrl);
+
+        if (cachedResponse != null && cachedResponse.isFresh()) {
+            logger.debug("url (cached): " + fullUrl);
+            return readCachedResponse(cachedResponse, responseReader);
         }
 
+        logger.debug("url: " + fullUrl);
 
-        // HTTP Request is ready. Let's execute it now.
-        CloseableHttpResponse response = null;
-        CloseableHttpClient httpClient = HttpClients.createDefault();
+        AzureDevopsRequestThrottler throttler = AzureDevopsRequestThrottler.get(restConfig);
+        AzureDevopsConcurrencyLimiter limiter = AzureDevopsConcurrencyLimiter.get(restConfig);
+        AzureDevopsCircuitBreaker circuitBreaker = AzureDevopsCircuitBreaker.get(restConfig);
+        final String requestKind = getRequestKind(httpMethod, relativeUrl);
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(restConfig.getMaxThrottlingWaitSeconds());
 
-        try {
-            response = httpClient.execute(httpRequest);
+        int failedAttempts = 0;
+        long retryDelay = 0;
 
-            // All Azure DevOps REST calls should return HTTP 200 status code if successful.
-            checkResponseStatus(200, response, fullUrl, httpMethod, jsonPayload);
+        for (int attempt = 0; ; attempt++) {
+            CloseableHttpResponse response = null;
+            boolean permitAcquired = false;
+            // The circuit breaker must be told what happened to every request it let through, otherwise it may wait forever for a trial request.
+            boolean breakerOutcomePending = false;
+            boolean requestSent = false;
+            long latencyNanos = 0;
+            AzureDevopsConcurrencyLimiter.Outcome outcome = AzureDevopsConcurrencyLimiter.Outcome.IGNORED;
 
-            HttpEntity responseContent = response.getEntity();
+            try {
+                if (retryDelay > 0) {
+                    // Waiting before retrying a failed request, without holding any connection or permit.
+                    Thread.sleep(retryDelay);
+                    retryDelay = 0;
+                }
 
-            if (responseContent != null) {
-                return EntityUtils.toString(responseContent);
-            } else {
-                return "";
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error occurred when making REST call to " + fullUrl, e);
-        } finally {
-            if (response != null) {
-                try {
-                    response.close();
-                } catch (IOException e) {
-                    // Do nothing.
+                if (!circuitBreaker.allowRequest()) {
+                    throw new RestRequestException(503, "Azure DevOps organization " + restConfig.getOrganizationUrl() + " is not responding properly, " + httpMethod + " request to " + fullUrl + " was not sent. Please retry later.");
                 }
-            }
-            if (httpClient != null) {
+                breakerOutcomePending = true;
+
+                if (!throttler.awaitTurn(deadline)) {
+                    throw new RestRequestException(429, "Azure DevOps is throttling requests, could not send " + httpMethod + " request to " + fullUrl + " within " + restConfig.getMaxThrottlingWaitSeconds() + " seconds. " + throttler.getThrottleState());
+                }
+
+                permitAcquired = limiter.acquire(deadline);
+                if (!permitAcquired) {
+                    throw new RestRequestException(429, "Too many concurrent requests to Azure DevOps, could not send " + httpMethod + " request to " + fullUrl + " within " + restConfig.getMaxThrottlingWaitSeconds() + " seconds.");
+                }
+
+                // Retrieved for each attempt, as the client may have been closed & replaced by AzureDevopsHttpClientRegistry.reset() since the previous one.
+                CloseableHttpClient httpClient = AzureDevopsHttpClientRegistry.getHttpClient(restConfig);
+                long startTime = System.nanoTime();
                 try {
-                    httpClient.close();
+                    response = httpClient.execute(createHttpRequest(fullUrl, httpMethod, operation, jsonPayload, usePatchJsonContentType, cachedResponse));
                 } catch (IOException e) {
-                    // Do nothing.
+                    circuitBreaker.onFailure();
+                    breakerOutcomePending = false;
+                    // Requests that may have reached Azure DevOps are only sent again if they don't modify anything.
+                    retryDelay = getRetryDelay(operation, failedAttempts++, deadline);
+                    if (retryDelay >= 0) {
+                        logger.warn("Error when sending " + httpMethod + " request to " + fullUrl + ", retrying in " + retryDelay + "ms: " + e.getMessage());
+                        continue;
+                    }
+                    throw e;
+                }
+                latencyNanos = System.nanoTime() - startTime;
+                requestSent = true;
+
+                long retryAfterMs = throttler.onResponse(response);
+
+                int statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode == 304 && cachedResponse != null) {
+                    circuitBreaker.onSuccess();
+                    breakerOutcomePending = false;
+                    outcome = AzureDevopsConcurrencyLimiter.Outcome.SUCCESS;
+                    cachedResponse = cachedResponse.revalidated(cacheTtlMs);
+                    responseCache.put(restConfig.getTenantKey(), relativeUrl, cachedResponse);
+                    return readCachedResponse(cachedResponse, responseReader);
+                }
+
+                // All Azure DevOps REST calls should return HTTP 200 status code if successful.
+                if (statusCode != 200) {
+                    String responseStr = readErrorResponse(response);
+
+                    // Throttled requests are rejected before being processed, so they can safely be sent again, whatever the HTTP method.
+                    if (isThrottled(statusCode, retryAfterMs, responseStr)) {
+                        circuitBreaker.onSuccess();
+                        breakerOutcomePending = false;
+                        outcome = AzureDevopsConcurrencyLimiter.Outcome.THROTTLED;
+                        long delay = throttler.onThrottled(attempt, retryAfterMs);
+                        if (System.currentTimeMillis() + delay <= deadline) {
+                            continue;
+                        }
+                    } else if (isServerFailure(statusCode)) {
+                        circuitBreaker.onFailure();
+                        breakerOutcomePending = false;
+                        retryDelay = getRetryDelay(operation, failedAttempts++, deadline);
+                        if (retryDelay >= 0) {
+                            logger.warn("HTTP " + statusCode + " received for " + httpMethod + " request to " + fullUrl + ", retrying in " + retryDelay + "ms");
+                            continue;
+                        }
+                    } else {
+                        circuitBreaker.onSuccess();
+                        breakerOutcomePending = false;
+                    }
+
+                    throw new RestRequestException(statusCode, buildErrorMessage(200, statusCode, fullUrl, httpMethod, jsonPayload, responseStr));
+                }
+
+                outcome = AzureDevopsConcurrencyLimiter.Outcome.SUCCESS;
+
+                HttpEntity responseContent = response.getEntity();
+
+                // The request only succeeded once its body was fully read: a broken connection while reading it is a failure.
+                T result;
+                if (responseContent != null) {
+                    Charset charset = ContentType.getOrDefault(responseContent).getCharset();
+                    try (Reader content = new InputStreamReader(openResponseStream(responseContent), charset == null ? StandardCharsets.UTF_8 : charset)) {
+                        if (cacheTtlMs != null) {
+                            // Cached responses are kept as text, so that each caller parses its own copy of the objects.
+                            cachedResponse = new AzureDevopsResponseCache.CachedResponse(readFully(content), getHeaderValue(response, "ETag"), getHeaderValue(response, "Last-Modified"), cacheTtlMs);
+                            responseCache.put(restConfig.getTenantKey(), relativeUrl, cachedResponse);
+                            result = readCachedResponse(cachedResponse, responseReader);
+                        } else {
+                            result = responseReader.read(content);
+                        }
+                    }
+                } else {
+                    result = responseReader.read(new StringReader(""));
+                }
+
+                circuitBreaker.onSuccess();
+                breakerOutcomePending = false;
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting to make REST call to " + fullUrl, e);
+            } catch (RestRequestException e) {
+                // Already has all the info about the failed request, and the HTTP status code can be useful to callers.
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Error occurred when making REST call to " + fullUrl, e);
+            } finally {
+                if (breakerOutcomePending) {
+                    // Interrupted, or failed with an unexpected error (invalid URI, closed connection pool, unreadable response...).
+                    if (requestSent) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onNotSent();
+                    }
+                }
+                if (response != null) {
+                    // Fully consuming the response is required for the connection to be released back to the pool.
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    try {
+                        response.close();
+                    } catch (IOException e) {
+                        // Do nothing.
+                    }
+                }
+                if (permitAcquired) {
+                    limiter.release(requestKind, latencyNanos, outcome);
                 }
             }
         }
 
     }
 
+    private static <T> T readCachedResponse(AzureDevopsResponseCache.CachedResponse cachedResponse, ResponseReader<T> responseReader) {
+        try {
+            return responseReader.readString(cachedResponse.getBody());
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred when reading cached REST response", e);
+        }
+    }
+
+    private static String getHeaderValue(HttpResponse response, String headerName) {
+        Header header = response.getFirstHeader(headerName);
+        return header == null || StringUtils.isBlank(header.getValue()) ? null : header.getValue();
+    }
+
+    /**
+     * @return how long to wait before retrying a failed request, or -1 if it shouldn't be retried
+     * (it may have modified data, it was already retried too many times, or the retry would happen after the deadline).
+     */
+    private static long getRetryDelay(RestOperation operation, int failedAttempts, long deadline) {
+        if (!operation.isIdempotent() || failedAttempts >= MAX_RETRIES) {
+            return -1;
+        }
+        long backoff = RETRY_BASE_DELAY_MS << failedAttempts;
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return System.currentTimeMillis() + delay <= deadline ? delay : -1;
+    }
+
+    /**
+     * Errors that mean Azure DevOps (or a gateway in front of it) is failing, rather than the request being wrong.
+     */
+    private static boolean isServerFailure(int statusCode) {
+        return statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * @return the method and path of the request, without query string and IDs, so that all requests of the same kind have the same key.
+     */
+    private static String getRequestKind(String httpMethod, String relativeUrl) {
+        int queryStart = relativeUrl.indexOf('?');
+        String path = queryStart < 0 ? relativeUrl : relativeUrl.substring(0, queryStart);
+        return httpMethod + " " + ID_PATH_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * Azure DevOps rejects throttled requests with a 429 and a TF400733 error. A 503 is only retried if Azure DevOps tells us when to retry.
+     */
+    private static boolean isThrottled(int statusCode, long retryAfterMs, String responseStr) {
+        return statusCode == 429
+                || (statusCode == 503 && retryAfterMs > 0)
+                || (responseStr != null && responseStr.contains(AzureDevopsRequestThrottler.THROTTLED_ERROR_CODE));
+    }
+
+    /**
+     * @return the current rate limiting state of the organization, as reported by Azure DevOps.
+     */
+    public AzureDevopsRequestThrottler.ThrottleState getThrottleState() {
+        return AzureDevopsRequestThrottler.get(restConfig).getThrottleState();
+    }
+
+    /**
+     * @return how many requests can usefully be submitted in parallel to this organization. The adaptive limiter decides how many of them actually run at the same time.
+     */
+    public int getMaxConcurrency() {
+        return AzureDevopsConcurrencyLimiter.get(restConfig).getMaxLimit();
+    }
+
     public String sendGet(String uri) {
-        return executeHttpRequest(uri, "GET", null, false);
+        return sendGet(uri, STRING_READER);
     }
 
-    private void checkResponseStatus(int expectedHttpStatusCode, CloseableHttpResponse response, String uri, String verb, String payload) {
+    public <T> T sendGet(String uri, ResponseReader<T> responseReader) {
+        return executeHttpRequest(uri, "GET", RestOperation.READ, null, false, responseReader);
+    }
 
-        if (response.getStatusLine().getStatusCode() != expectedHttpStatusCode) {
-            StringBuilder errorMessage = new StringBuilder(String.format("## Unexpected HTTP response status code %s for %s uri %s, expected %s", response.getStatusLine().getStatusCode(), verb, uri, expectedHttpStatusCode));
+    /**
+     * GET of a resource that rarely changes. The response is cached and returned without any request for ttlSeconds,
+     * then revalidated with a conditional GET (ETag / Last-Modified) that only downloads it again if it changed.
+     */
+    public <T> T sendGetCached(String uri, int ttlSeconds, ResponseReader<T> responseReader) {
+        // Identical GETs running at the same time (i.e. several dropdowns of the same PPM screen loading the same metadata) share a single REST call.
+        // Each caller still parses its own copy of the response, as callers may modify the returned objects.
+        String body = IN_FLIGHT_GETS.execute(getSingleFlightKey("GET", uri, null),
+                () -> executeHttpRequest(uri, "GET", RestOperation.READ, null, false, TimeUnit.SECONDS.toMillis(ttlSeconds), STRING_READER));
+        try {
+            return responseReader.readString(body);
+        } catch (IOException e) {
+            throw new RuntimeException("Error occurred when reading REST response of " + uri, e);
+        }
+    }
 
-            if (payload != null) {
-                errorMessage.append(System.lineSeparator()).append(System.lineSeparator()).append("# Sent Payload:").append(System.lineSeparator()).append(payload);
-            }
-            String responseStr = null;
-            try {
-                HttpEntity responseContent = response.getEntity();
+    /**
+     * Identifies identical requests: same tenant (organization & credentials), method, URL and payload.
+     */
+    private String getSingleFlightKey(String httpMethod, String uri, String jsonPayload) {
+        return restConfig.getTenantKey() + "|" + httpMethod + "|" + uri + "|" + (jsonPayload == null ? "" : Hashing.sha256().hashString(jsonPayload, StandardCharsets.UTF_8).toString());
+    }
 
-                if (responseContent != null) {
-                    responseStr = EntityUtils.toString(responseContent);
+    /**
+     * Compression is negotiated by us rather than by HttpClient, so that we can count both the bytes received and the decompressed bytes.
+     * The response is decompressed as it is read, it's never fully loaded in memory.
+     */
+    private InputStream openResponseStream(HttpEntity responseContent) throws IOException {
+        Header contentEncodingHeader = responseContent.getContentEncoding();
+        String contentEncoding = contentEncodingHeader == null ? "" : StringUtils.defaultString(contentEncodingHeader.getValue()).trim().toLowerCase();
+
+        final CountingInputStream transferredStream = new CountingInputStream(responseContent.getContent());
+        final boolean compressed;
+        InputStream decodedStream;
+
+        switch (contentEncoding) {
+            case "gzip":
+            case "x-gzip":
+                compressed = true;
+                decodedStream = new GZIPInputStream(transferredStream, DECOMPRESSION_BUFFER_SIZE);
+                break;
+            case "deflate":
+                compressed = true;
+                // Handles both zlib-wrapped and raw deflate data, as servers don't agree on what "deflate" means.
+                decodedStream = new DeflateInputStream(transferredStream);
+                break;
+            default:
+                compressed = false;
+                decodedStream = transferredStream;
+                break;
+        }
+
+        final CountingInputStream decodedCountingStream = new CountingInputStream(decodedStream);
+        final AzureDevopsTransferMetrics transferMetrics = AzureDevopsTransferMetrics.get(restConfig);
+
+        return new FilterInputStream(decodedCountingStream) {
+
+            private boolean closed = false;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    transferMetrics.record(compressed, transferredStream.getCount(), decodedCountingStream.getCount());
                 }
-            } catch (Exception e) {
-                // we don't do anything if we cannot get the response.
+                super.close();
             }
-            if (!StringUtils.isBlank(responseStr)) {
-                errorMessage.append(System.lineSeparator()).append(System.lineSeparator()).append("# Received Response:").append(System.lineSeparator()).append(responseStr);
+        };
+    }
+
+    /**
+     * @return the bytes received from this organization, compressed and decompressed.
+     */
+    public AzureDevopsTransferMetrics getTransferMetrics() {
+        return AzureDevopsTransferMetrics.get(restConfig);
+    }
+
+    private String readErrorResponse(CloseableHttpResponse response) {
+        try {
+            HttpEntity responseContent = response.getEntity();
+
+            if (responseContent != null) {
+                Charset charset = ContentType.getOrDefault(responseContent).getCharset();
+                try (Reader content = new InputStreamReader(openResponseStream(responseContent), charset == null ? StandardCharsets.UTF_8 : charset)) {
+                    return readFully(content);
+                }
             }
+        } catch (Exception e) {
+            // we don't do anything if we cannot get the response.
+        }
+        return null;
+    }
+
+    private static String buildErrorMessage(int expectedHttpStatusCode, int statusCode, String uri, String verb, String payload, String responseStr) {
+
+        StringBuilder errorMessage = new StringBuilder(String.format("## Unexpected HTTP response status code %s for %s uri %s, expected %s", statusCode, verb, uri, expectedHttpStatusCode));
 
-            throw new RestRequestException(response.getStatusLine().getStatusCode(), errorMessage.toString());
+        if (payload != null) {
+            errorMessage.append(System.lineSeparator()).append(System.lineSeparator()).append("# Sent Payload:").append(System.lineSeparator()).append(payload);
         }
+        if (!StringUtils.isBlank(responseStr)) {
+            errorMessage.append(System.lineSeparator()).append(System.lineSeparator()).append("# Received Response:").append(System.lineSeparator()).append(responseStr);
+        }
+
+        return errorMessage.toString();
     }
 
     public String sendPost(String uri, String jsonPayload) {
-        return executeHttpRequest(uri, "POST", jsonPayload, false);
+        return sendPost(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> T sendPost(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequest(uri, "POST", RestOperation.WRITE, jsonPayload, false, responseReader);
+    }
+
+    /**
+     * POST that doesn't modify anything in Azure DevOps (WIQL, batch retrieval of work items...), and can therefore be retried if it fails.
+     */
+    public <T> T sendQuery(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequest(uri, "POST", RestOperation.QUERY, jsonPayload, false, responseReader);
     }
 
     public String sendPostWithPatchContentType(String uri, String jsonPayload) {
-        return executeHttpRequest(uri, "POST", jsonPayload, true);
+        return sendPostWithPatchContentType(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> T sendPostWithPatchContentType(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequest(uri, "POST", RestOperation.WRITE, jsonPayload, true, responseReader);
     }
 
     public String sendPatch(String uri, String jsonPayload) {
-        return executeHttpRequest(uri, "PATCH", jsonPayload, true);
+        return sendPatch(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> T sendPatch(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequest(uri, "PATCH", RestOperation.WRITE, jsonPayload, true, responseReader);
+    }
+
+    /**
+     * Asynchronous versions of the send methods. These are thread-per-call wrappers around the blocking send methods, not non-blocking I/O:
+     * PPM doesn't bundle any asynchronous HTTP engine, so each call occupies one connector thread (see {@link ConnectorExecutors})
+     * from the time it waits for a concurrency permit until its response has been read.
+     * The future completes with the value returned by the response reader.
+     */
+    public CompletableFuture<String> sendGetAsync(String uri) {
+        return sendGetAsync(uri, STRING_READER);
+    }
+
+    public <T> CompletableFuture<T> sendGetAsync(String uri, ResponseReader<T> responseReader) {
+        return executeHttpRequestAsync(uri, "GET", RestOperation.READ, null, false, responseReader);
+    }
+
+    public CompletableFuture<String> sendPostAsync(String uri, String jsonPayload) {
+        return sendPostAsync(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> CompletableFuture<T> sendPostAsync(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequestAsync(uri, "POST", RestOperation.WRITE, jsonPayload, false, responseReader);
+    }
+
+    public <T> CompletableFuture<T> sendQueryAsync(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequestAsync(uri, "POST", RestOperation.QUERY, jsonPayload, false, responseReader);
+    }
+
+    public CompletableFuture<String> sendPostWithPatchContentTypeAsync(String uri, String jsonPayload) {
+        return sendPostWithPatchContentTypeAsync(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> CompletableFuture<T> sendPostWithPatchContentTypeAsync(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequestAsync(uri, "POST", RestOperation.WRITE, jsonPayload, true, responseReader);
+    }
+
+    public CompletableFuture<String> sendPatchAsync(String uri, String jsonPayload) {
+        return sendPatchAsync(uri, jsonPayload, STRING_READER);
+    }
+
+    public <T> CompletableFuture<T> sendPatchAsync(String uri, String jsonPayload, ResponseReader<T> responseReader) {
+        return executeHttpRequestAsync(uri, "PATCH", RestOperation.WRITE, jsonPayload, true, responseReader);
+    }
+
+    private <T> CompletableFuture<T> executeHttpRequestAsync(String relativeUrl, String httpMethod, RestOperation operation, String jsonPayload, boolean usePatchJsonContentType, ResponseReader<T> responseReader) {
+        return CompletableFuture.supplyAsync(() -> executeHttpRequest(relativeUrl, httpMethod, operation, jsonPayload, usePatchJsonContentType, responseReader), ConnectorExecutors.getSharedExecutor());
+    }
+
+    private static String readFully(Reader content) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            sb.append(buffer, 0, read);
+        }
+        return sb.toString();
     }
 
     /*public ClientResponse sendPut(String uri, String jsonPayload, int expectedHttpStatusCode) {
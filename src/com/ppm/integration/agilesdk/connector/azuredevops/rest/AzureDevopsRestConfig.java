@@ -8,10 +8,18 @@ package com.ppm.integration.agilesdk.connector.azuredevops.rest;
 
 import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.wink.client.ClientConfig;
 
+import com.google.common.hash.Hashing;
+
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class AzureDevopsRestConfig {
 
@@ -23,12 +31,36 @@ public class AzureDevopsRestConfig {
     private String proxyHost;
     private String proxyPort;
 
+    private int maxConnectionsPerRoute = AzureDevopsConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+
+    private int maxConnectionsTotal = AzureDevopsConstants.DEFAULT_MAX_CONNECTIONS_TOTAL;
+
+    private int idleConnectionTimeoutSeconds = AzureDevopsConstants.DEFAULT_IDLE_CONNECTION_TIMEOUT_SECONDS;
+
+    private int maxParallelRequests = AzureDevopsConstants.DEFAULT_MAX_PARALLEL_REQUESTS;
+
+    private int maxThrottlingWaitSeconds = AzureDevopsConstants.DEFAULT_MAX_THROTTLING_WAIT_SECONDS;
+
+    private int connectTimeoutSeconds = AzureDevopsConstants.DEFAULT_CONNECT_TIMEOUT_SECONDS;
+
+    private int requestTimeoutSeconds = AzureDevopsConstants.DEFAULT_REQUEST_TIMEOUT_SECONDS;
+
+    private int queryTimeoutSeconds = AzureDevopsConstants.DEFAULT_QUERY_TIMEOUT_SECONDS;
+
+    // Computed once per config, as they're used in every single REST call.
+    private String basicAuthorizationHeaderValue;
+
+    private String tenantKey;
+
+    private Map<RestOperation, RequestConfig> requestConfigs = new EnumMap<>(RestOperation.class);
+
 
     public AzureDevopsRestConfig setProxy(String proxyHost, String proxyPort) {
 
         if (proxyHost != null && !proxyHost.isEmpty() && proxyPort != null && !proxyPort.isEmpty()) {
             this.proxyHost = proxyHost;
             this.proxyPort = proxyPort;
+            this.requestConfigs.clear();
         }
         return this;
     }
@@ -40,6 +72,8 @@ public class AzureDevopsRestConfig {
 
     public void setAuthToken(String authToken) {
         this.authToken = authToken;
+        this.basicAuthorizationHeaderValue = null;
+        this.tenantKey = null;
     }
 
     public String getOrganizationUrl() {
@@ -57,12 +91,124 @@ public class AzureDevopsRestConfig {
 
     public void setOrganizationUrl(String organizationUrl) {
         this.organizationUrl = organizationUrl;
+        this.tenantKey = null;
     }
 
 
     public String getBasicAuthorizationHeaderValue() {
-        // Username is irrelevant for PAT authentication
-        return "Basic " + Base64.getEncoder().encodeToString((":"+getAuthToken()).getBytes());
+        if (basicAuthorizationHeaderValue == null) {
+            // Username is irrelevant for PAT authentication
+            basicAuthorizationHeaderValue = "Basic " + Base64.getEncoder().encodeToString((":"+getAuthToken()).getBytes());
+        }
+        return basicAuthorizationHeaderValue;
+    }
+
+    /**
+     * @return the default request config, used for simple reads.
+     */
+    public RequestConfig getRequestConfig() {
+        return getRequestConfig(RestOperation.READ);
+    }
+
+    /**
+     * @return the request config (proxy settings if any, and timeouts of that kind of operation) to use for REST calls made with this config.
+     */
+    public synchronized RequestConfig getRequestConfig(RestOperation operation) {
+        return requestConfigs.computeIfAbsent(operation, op -> {
+            RequestConfig.Builder builder = RequestConfig.custom()
+                    .setConnectTimeout((int)TimeUnit.SECONDS.toMillis(connectTimeoutSeconds))
+                    .setSocketTimeout((int)TimeUnit.SECONDS.toMillis(op == RestOperation.QUERY ? queryTimeoutSeconds : requestTimeoutSeconds))
+                    .setConnectionRequestTimeout((int)TimeUnit.SECONDS.toMillis(AzureDevopsConstants.DEFAULT_CONNECTION_REQUEST_TIMEOUT_SECONDS));
+            if (!StringUtils.isBlank(getProxyHost())) {
+                builder.setProxy(new HttpHost(getProxyHost(), getProxyPort(), "http"));
+            }
+            return builder.build();
+        });
+    }
+
+    /**
+     * @param connectTimeoutSeconds max time to establish a connection.
+     * @param requestTimeoutSeconds max time without receiving data from Azure DevOps for reads and updates.
+     * @param queryTimeoutSeconds max time without receiving data from Azure DevOps for queries (WIQL, batch retrieval of work items).
+     */
+    public synchronized void setTimeouts(int connectTimeoutSeconds, int requestTimeoutSeconds, int queryTimeoutSeconds) {
+        this.connectTimeoutSeconds = connectTimeoutSeconds;
+        this.requestTimeoutSeconds = requestTimeoutSeconds;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        this.requestConfigs.clear();
+    }
+
+    /**
+     * Identifies the organization and the credentials used to access it, without exposing the PAT.
+     * Any data cached beyond the life of a single service instance must be keyed by this tenant key.
+     */
+    public String getTenantKey() {
+        if (tenantKey == null) {
+            tenantKey = getOrganizationUrl().toLowerCase() + "|" + Hashing.sha256().hashString(StringUtils.defaultString(getAuthToken()), StandardCharsets.UTF_8).toString();
+        }
+        return tenantKey;
+    }
+
+    /**
+     * HTTP Connections can be shared between all configs that target the same organization through the same proxy, with the same pool settings.
+     * The key starts with {@link #getConnectionTargetKey()}.
+     */
+    public synchronized String getConnectionPoolKey() {
+        return getConnectionTargetKey() + "|" + maxConnectionsTotal + "|" + maxConnectionsPerRoute + "|" + idleConnectionTimeoutSeconds
+                + "|" + connectTimeoutSeconds + "|" + requestTimeoutSeconds + "|" + queryTimeoutSeconds;
+    }
+
+    /**
+     * @return the organization & proxy targeted by this config, ending with a "|".
+     */
+    public String getConnectionTargetKey() {
+        return getOrganizationUrl().toLowerCase() + "|" + (StringUtils.isBlank(getProxyHost()) ? "" : getProxyHost() + ":" + getProxyPort()) + "|";
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+    }
+
+    public int getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    public void setMaxConnectionsTotal(int maxConnectionsTotal) {
+        this.maxConnectionsTotal = maxConnectionsTotal;
+    }
+
+    public int getIdleConnectionTimeoutSeconds() {
+        return idleConnectionTimeoutSeconds;
+    }
+
+    public void setIdleConnectionTimeoutSeconds(int idleConnectionTimeoutSeconds) {
+        this.idleConnectionTimeoutSeconds = idleConnectionTimeoutSeconds;
+    }
+
+    /**
+     * @return How many REST calls can run in parallel against the organization before the adaptive limiter adjusts it (see {@link AzureDevopsConcurrencyLimiter}).
+     */
+    public int getMaxParallelRequests() {
+        return maxParallelRequests;
+    }
+
+    public void setMaxParallelRequests(int maxParallelRequests) {
+        this.maxParallelRequests = maxParallelRequests;
+    }
+
+    /**
+     * @return How long a single REST call can wait in total (delays & retries) when Azure DevOps throttles requests, before failing.
+     */
+    public int getMaxThrottlingWaitSeconds() {
+        return maxThrottlingWaitSeconds;
+    }
+
+    public void setMaxThrottlingWaitSeconds(int maxThrottlingWaitSeconds) {
+        this.maxThrottlingWaitSeconds = maxThrottlingWaitSeconds;
     }
 
     public String getProxyHost() {
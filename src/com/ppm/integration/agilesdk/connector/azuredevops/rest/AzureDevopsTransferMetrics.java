@@ -0,0 +1,79 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the bytes received from an Azure DevOps organization, both as transferred on the wire (compressed or not)
+ * and after decompression, to measure what response compression saves.
+ *
+ * There is one instance per organization, shared by all service instances.
+ */
+public class AzureDevopsTransferMetrics {
+
+    private static final Map<String, AzureDevopsTransferMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final AtomicLong responses = new AtomicLong();
+
+    private final AtomicLong compressedResponses = new AtomicLong();
+
+    private final AtomicLong transferredBytes = new AtomicLong();
+
+    private final AtomicLong decodedBytes = new AtomicLong();
+
+    public static AzureDevopsTransferMetrics get(AzureDevopsRestConfig config) {
+        return metrics.computeIfAbsent(config.getOrganizationUrl().toLowerCase(), key -> new AzureDevopsTransferMetrics());
+    }
+
+    private AzureDevopsTransferMetrics() {
+    }
+
+    /**
+     * @param compressed whether the response body was gzip or deflate encoded.
+     * @param transferred bytes read from the connection.
+     * @param decoded bytes of the response after decompression (same as transferred if not compressed).
+     */
+    void record(boolean compressed, long transferred, long decoded) {
+        responses.incrementAndGet();
+        if (compressed) {
+            compressedResponses.incrementAndGet();
+        }
+        transferredBytes.addAndGet(transferred);
+        decodedBytes.addAndGet(decoded);
+    }
+
+    public long getResponses() {
+        return responses.get();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    /**
+     * @return transferred bytes / decoded bytes, i.e. 0.2 if responses were 5 times smaller thanks to compression.
+     */
+    public double getCompressionRatio() {
+        long decoded = decodedBytes.get();
+        return decoded == 0 ? 1.0d : (double) transferredBytes.get() / decoded;
+    }
+
+    @Override
+    public String toString() {
+        return "Transfer metrics: responses=" + getResponses() + " (compressed=" + getCompressedResponses() + "), transferred bytes=" + getTransferredBytes()
+                + ", decoded bytes=" + getDecodedBytes() + ", compression ratio=" + String.format("%.2f", getCompressionRatio());
+    }
+}
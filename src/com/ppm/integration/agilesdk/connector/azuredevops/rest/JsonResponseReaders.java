@@ -0,0 +1,99 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming JSON readers for Azure DevOps responses.
+ *
+ * Most Azure DevOps list end points return an object with the results in an array property (usually "value"),
+ * i.e. <code>{"count": 2, "value": [{...}, {...}]}</code>. These readers walk that array with a Gson {@link JsonReader}
+ * and bind each element as soon as it's read, without building a String or a JsonElement tree of the whole response.
+ */
+public class JsonResponseReaders {
+
+    private JsonResponseReaders() {
+    }
+
+    /**
+     * Binds each element of the array property of the response to the passed type and hands it to the consumer, one at a time.
+     * @return the number of elements read.
+     */
+    public static <T> ResponseReader<Integer> forEach(final String arrayProperty, final Class<T> type, final Gson gson, final Consumer<? super T> consumer) {
+        return content -> {
+            JsonReader jsonReader = new JsonReader(content);
+            int count = 0;
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if (arrayProperty.equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                    jsonReader.beginArray();
+                    while (jsonReader.hasNext()) {
+                        T obj = gson.fromJson(jsonReader, type);
+                        consumer.accept(obj);
+                        count++;
+                    }
+                    jsonReader.endArray();
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            return count;
+        };
+    }
+
+    public static <T> ResponseReader<List<T>> listOf(final String arrayProperty, final Class<T> type, final Gson gson) {
+        return content -> {
+            List<T> result = new ArrayList<>();
+            forEach(arrayProperty, type, gson, result::add).read(content);
+            return result;
+        };
+    }
+
+    public static <T> ResponseReader<T> objectOf(final Class<T> type, final Gson gson) {
+        return content -> gson.fromJson(new JsonReader(content), type);
+    }
+
+    /**
+     * Reads the "id" property of every object in the array property, ignoring everything else.
+     * This is typically used to read the result of a WIQL, i.e. <code>{"workItems": [{"id": 1, "url": "..."}]}</code>
+     */
+    public static ResponseReader<List<Long>> idsOf(final String arrayProperty) {
+        return content -> {
+            JsonReader jsonReader = new JsonReader(content);
+            List<Long> ids = new ArrayList<>();
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                if (arrayProperty.equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                    jsonReader.beginArray();
+                    while (jsonReader.hasNext()) {
+                        jsonReader.beginObject();
+                        while (jsonReader.hasNext()) {
+                            if ("id".equals(jsonReader.nextName()) && jsonReader.peek() == JsonToken.NUMBER) {
+                                ids.add(jsonReader.nextLong());
+                            } else {
+                                jsonReader.skipValue();
+                            }
+                        }
+                        jsonReader.endObject();
+                    }
+                    jsonReader.endArray();
+                } else {
+                    jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+            return ids;
+        };
+    }
+}
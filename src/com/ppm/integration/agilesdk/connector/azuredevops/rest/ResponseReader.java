@@ -0,0 +1,26 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Reads the body of a successful REST response directly from the response stream,
+ * so that large payloads never need to be fully materialized as a String.
+ */
+@FunctionalInterface
+public interface ResponseReader<T> {
+
+    T read(Reader content) throws IOException;
+
+    /**
+     * Reads a body that is already in memory, such as a cached response. Readers returning the body as a String should return it as is.
+     */
+    default T readString(String body) throws IOException {
+        return read(new StringReader(body));
+    }
+}
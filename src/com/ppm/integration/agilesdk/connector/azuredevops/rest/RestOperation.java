@@ -0,0 +1,30 @@
+/*
+ * © Copyright 2019 - 2020 Micro Focus or one of its affiliates.
+ */
+
+package com.ppm.integration.agilesdk.connector.azuredevops.rest;
+
+/**
+ * Kind of REST call, which defines its timeout and whether it can safely be retried.
+ */
+public enum RestOperation {
+
+    /** GET of a resource. */
+    READ(true),
+
+    /** POST that only reads data, such as a WIQL query or a batch retrieval of work items. Can take longer than a READ. */
+    QUERY(true),
+
+    /** POST or PATCH that creates or updates data. Never retried unless Azure DevOps rejected it before processing it (throttling). */
+    WRITE(false);
+
+    private final boolean idempotent;
+
+    RestOperation(boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
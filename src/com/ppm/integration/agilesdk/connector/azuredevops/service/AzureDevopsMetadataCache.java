@@ -0,0 +1,126 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.ConnectorExecutors;
+import org.apache.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * JVM-wide cache of Azure DevOps metadata (work item types, fields, iterations...), shared by all service instances.
+ *
+ * All entries are keyed by tenant (organization URL + hash of the PAT, see {@link com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsRestConfig#getTenantKey()}),
+ * so that data retrieved with one set of credentials is never returned to another one.
+ *
+ * Entries are fresh for {@link #FRESH_TTL_MINUTES}. After that, and until they expire, the stale value is still returned
+ * while it gets reloaded in the background, so that callers never wait for metadata that was already loaded once.
+ *
+ * Cached values are shared between threads and must not be modified by callers.
+ */
+public class AzureDevopsMetadataCache {
+
+    private final static Logger logger = Logger.getLogger(AzureDevopsMetadataCache.class);
+
+    private static final long FRESH_TTL_MINUTES = 10;
+
+    private static final long STALE_TTL_MINUTES = 60;
+
+    private static final long MAX_ENTRIES = 2000;
+
+    private static final AzureDevopsMetadataCache instance = new AzureDevopsMetadataCache();
+
+    private final Cache<String, CacheEntry> entries = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(FRESH_TTL_MINUTES + STALE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /** Keys of the entries currently being reloaded in the background. */
+    private final Map<String, Boolean> refreshingKeys = new ConcurrentHashMap<>();
+
+    public static AzureDevopsMetadataCache getInstance() {
+        return instance;
+    }
+
+    private AzureDevopsMetadataCache() {
+    }
+
+    /**
+     * @param tenantKey the key identifying the organization & credentials used to retrieve the data.
+     * @param cacheName the kind of cached data, such as "workItemTypes". All the loaders used with a given cache name must return the same type.
+     * @param key the key of the data in this cache, usually a project ID.
+     * @param loader makes the REST call(s) to retrieve the data if needed. It may be called in a background thread.
+     */
+    public <T> T get(String tenantKey, String cacheName, String key, Supplier<T> loader) {
+
+        final String fullKey = tenantKey + "|" + cacheName + "|" + key;
+
+        CacheEntry entry = entries.getIfPresent(fullKey);
+
+        if (entry == null) {
+            try {
+                // Loading is synchronized per key by Guava, so concurrent callers will only trigger one load.
+                entry = entries.get(fullKey, () -> new CacheEntry(loader.get()));
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (UncheckedExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        } else if (entry.isStale() && refreshingKeys.putIfAbsent(fullKey, Boolean.TRUE) == null) {
+            // Stale-while-revalidate: we return the current value and reload it in background.
+            ConnectorExecutors.getSharedExecutor().execute(() -> {
+                try {
+                    entries.put(fullKey, new CacheEntry(loader.get()));
+                } catch (Exception e) {
+                    logger.warn("Failed to refresh Azure DevOps metadata " + cacheName + " for " + key + ", keeping stale value", e);
+                } finally {
+                    refreshingKeys.remove(fullKey);
+                }
+            });
+        }
+
+        // Entries are keyed by cache name, and all the loaders of a given cache name return the same type (see get() javadoc).
+        @SuppressWarnings("unchecked")
+        T value = (T) entry.value;
+        return value;
+    }
+
+    /**
+     * Removes all the metadata cached for this tenant.
+     */
+    public void invalidate(String tenantKey) {
+        final String prefix = tenantKey + "|";
+        entries.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    public void invalidate(String tenantKey, String cacheName, String key) {
+        entries.invalidate(tenantKey + "|" + cacheName + "|" + key);
+    }
+
+    public void invalidateAll() {
+        entries.invalidateAll();
+    }
+
+    private static class CacheEntry {
+
+        private final Object value;
+
+        private final long loadTime = System.currentTimeMillis();
+
+        private CacheEntry(Object value) {
+            this.value = value;
+        }
+
+        private boolean isStale() {
+            return System.currentTimeMillis() - loadTime > TimeUnit.MINUTES.toMillis(FRESH_TTL_MINUTES);
+        }
+    }
+}
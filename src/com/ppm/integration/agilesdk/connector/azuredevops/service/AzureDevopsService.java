@@ -5,7 +5,14 @@ import com.hp.ppm.common.model.AgileEntityIdName;
 import com.hp.ppm.common.model.AgileEntityIdProjectDate;
 import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
 import com.ppm.integration.agilesdk.connector.azuredevops.model.*;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsHttpClientRegistry;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsRequestThrottler;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsResponseCache;
 import com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsRestClient;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.AzureDevopsTransferMetrics;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.JsonResponseReaders;
+import com.ppm.integration.agilesdk.connector.azuredevops.rest.ResponseReader;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.ConnectorExecutors;
 import com.ppm.integration.agilesdk.connector.azuredevops.util.WIQLBuilder;
 import com.ppm.integration.agilesdk.dm.DataField;
 import com.ppm.integration.agilesdk.dm.User;
@@ -15,12 +22,18 @@ import org.apache.log4j.Logger;
 
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * Class in charge of making calls to AzureDevops REST API when needed.
- * Contains a cache, so the service should not be a static member of a class, as the caches are never invalidated and might contain stale data if used as such.
+ * Metadata (work item types, fields, iterations) is cached JVM-wide in {@link AzureDevopsMetadataCache}, so it's shared
+ * by all service instances using the same organization and credentials.
  *
  * This class not thread safe.
  */
@@ -29,6 +42,9 @@ public class AzureDevopsService {
     private final static Logger logger = Logger.getLogger(AzureDevopsService.class);
     private static final int WORK_ITEMS_BATCH_SIZE = 200;
 
+    /** Max number of IDs returned by a single WIQL call. Azure DevOps never returns more than 20000, larger results are paged by ID. */
+    private static final int WIQL_PAGE_SIZE = 5000;
+
     private AzureDevopsRestClient restClient;
 
     private UserProvider userProvider = null;
@@ -37,15 +53,33 @@ public class AzureDevopsService {
         this.restClient = restClient;
     }
 
-    // Various cached info - these will only be cached in a given service instance, which provides limited (but existing) benefit.
-    // Every REST call from UI will result in a new instance of this service.
+    // Names of the metadata caches in AzureDevopsMetadataCache.
+
+    /** Keys are project IDs, values are the key of the project process, see {@link #getProcessKey(String)} */
+    private static final String PROJECT_PROCESS_CACHE = "projectProcess";
+
+    /** Keys are process keys */
+    private static final String WORK_ITEM_TYPES_CACHE = "workItemTypes";
+
+    private static final String ITERATIONS_CACHE = "iterations";
 
-    private Map<String, List<WorkItemType>> projectToWorkItemTypesCache = new HashMap<>();
+    // TTLs of metadata responses in the HTTP response cache. After that they're revalidated with a conditional GET (see AzureDevopsRestClient#sendGetCached).
 
-    private Map<String, List<Iteration>> projectIterationsCache = new HashMap<>();
+    /** Projects list is not kept in the metadata cache, as new projects should show up quickly in the PPM dropdowns. */
+    private static final int PROJECTS_RESPONSE_TTL_SECONDS = 60;
 
-    /** Map<projectId_workItemTypeId, List<Field>> */
-    private Map<String, List<Field>> workItemTypeFieldsCache = new HashMap<>();
+    /** Other metadata is already cached by AzureDevopsMetadataCache, so their HTTP responses are revalidated every time the metadata is reloaded. */
+    private static final int METADATA_RESPONSE_TTL_SECONDS = 0;
+
+    /** Keys are processKey_workItemTypeId */
+    private static final String WORK_ITEM_TYPE_FIELDS_CACHE = "workItemTypeFields";
+
+    /** Only one entry per organization: Map<referenceName, Field> of all the fields defined in the organization. */
+    private static final String FIELDS_CATALOGUE_CACHE = "fieldsCatalogue";
+
+    private <T> T getCachedMetadata(String cacheName, String key, Supplier<T> loader) {
+        return AzureDevopsMetadataCache.getInstance().get(restClient.getConfig().getTenantKey(), cacheName, key, loader);
+    }
 
     public WorkItem createWorkItem(String projectId, String entityType) {
         String createWorkItemUrl =  "/"+projectId + AzureDevopsConstants.API_WORK_ITEMS_END_POINT + "/$" + entityType
@@ -60,32 +94,19 @@ public class AzureDevopsService {
                 "}]";
 
 
-        return responseTo(WorkItem.class, restClient.sendPostWithPatchContentType(createWorkItemUrl, payload));
+        return restClient.sendPostWithPatchContentType(createWorkItemUrl, payload, JsonResponseReaders.objectOf(WorkItem.class, AzureDevopsGson.get()));
     }
 
     public List<Project> getAllAvailableProjects() {
 
-        String response = restClient.sendGet(AzureDevopsConstants.API_PROJECTS_URL);
-
-        return responseToListOf(Project.class, response);
-    }
-
-    private <T extends AzureDevopsObject> List<T> responseToListOf(Class<T> returnedClass, String response) {
-        List<T> result = new ArrayList<>();
-        JsonElement listResponse = JsonParser.parseString(response);
-        JsonArray values = listResponse.getAsJsonObject().get("value").getAsJsonArray();
-        Gson gson = new Gson();
-        for (JsonElement value : values) {
-            T obj = gson.fromJson(value, returnedClass);
-            result.add(obj);
-        }
-
-        return result;
+        return restClient.sendGetCached(AzureDevopsConstants.API_PROJECTS_URL, PROJECTS_RESPONSE_TTL_SECONDS, listOf(Project.class));
     }
 
-    private <T extends AzureDevopsObject> T responseTo(Class<T> returnedClass, String response) {
-        T obj = new Gson().fromJson(response, returnedClass);
-        return obj;
+    /**
+     * Reader streaming the "value" array of a list response straight into the returned list.
+     */
+    private <T extends AzureDevopsObject> ResponseReader<List<T>> listOf(Class<T> returnedClass) {
+        return JsonResponseReaders.listOf("value", returnedClass, AzureDevopsGson.get());
     }
 
     public List<WorkItem> getAllWorkItems(String projectId, String... statusesToExclude) {
@@ -98,35 +119,88 @@ public class AzureDevopsService {
         return workItems;
     }
 
-    public List<WorkItem> getProjectWorkItems(String projectId, Collection<String> workItemTypes, String... statusesToExclude) {
+    /**
+     * @param projection the fields to retrieve for each work item.
+     */
+    public List<WorkItem> getProjectWorkItems(String projectId, Collection<String> workItemTypes, WorkItemProjection projection, String... statusesToExclude) {
 
-        // We first retrieve the list of all work items IDs by using WIQL, and then we retrieve work items details in batch of 200.
-        List<Long> workItemIds = runWIQL(new WIQLBuilder().addStatusesToExclude(statusesToExclude).setReturnedWorkItemType(workItemTypes), projectId);
+        return ConnectorExecutors.join(getProjectWorkItemsAsync(projectId, workItemTypes, projection, statusesToExclude));
+    }
 
-        List<WorkItem> workItems = getWorkItemsByIds(workItemIds);
+    /**
+     * Asynchronous version of {@link #getProjectWorkItems}: the returned future completes once all the work items are retrieved.
+     */
+    public CompletableFuture<List<WorkItem>> getProjectWorkItemsAsync(String projectId, Collection<String> workItemTypes, WorkItemProjection projection, String... statusesToExclude) {
+
+        // We retrieve the work items IDs by pages with WIQL, and retrieve the details of each page in batch of 200
+        // while the next page of IDs is being retrieved. Batches of all pages share the same concurrency budget.
+        final CompletableFuture<List<WorkItem>> result = new CompletableFuture<>();
+        final ConnectorExecutors.AsyncTaskQueue batchesQueue = new ConnectorExecutors.AsyncTaskQueue(restClient.getMaxConcurrency());
+        // Only modified by the page consumer, which is called for one page after the other.
+        final List<CompletableFuture<List<WorkItem>>> workItemsBatches = new ArrayList<>();
+
+        // As soon as anything fails, no other page or batch is requested.
+        result.whenComplete((workItems, error) -> {
+            if (error != null) {
+                batchesQueue.cancel();
+            }
+        });
+
+        runPagedWIQLAsync(new WIQLBuilder().addStatusesToExclude(statusesToExclude).setReturnedWorkItemType(workItemTypes), projectId, null,
+                workItemIdsPage -> {
+                    for (List<Long> workItemIdsBatch : com.google.common.collect.Lists.partition(workItemIdsPage, WORK_ITEMS_BATCH_SIZE)) {
+                        CompletableFuture<List<WorkItem>> workItemsBatch = batchesQueue.submit(() -> getWorkItemsBatchAsync(workItemIdsBatch, projection.getFields()));
+                        workItemsBatch.whenComplete((workItems, error) -> {
+                            if (error != null) {
+                                result.completeExceptionally(error);
+                            }
+                        });
+                        workItemsBatches.add(workItemsBatch);
+                    }
+                }, result::isDone)
+                .whenComplete((noMorePages, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(ConnectorExecutors.unwrap(error));
+                        return;
+                    }
+                    CompletableFuture.allOf(workItemsBatches.toArray(new CompletableFuture[0])).thenRun(() -> {
+                        List<WorkItem> workItems = new ArrayList<>();
+                        workItemsBatches.forEach(batch -> workItems.addAll(batch.join()));
+                        result.complete(workItems);
+                    });
+                });
 
-        return workItems;
+        return result;
     }
 
     /**
      * Retrieve details of work items by ID, in batches of 200.
+     * Batches are retrieved in parallel, but returned work items are in the same order as the passed IDs.
      */
     private List<WorkItem> batchBreakdownWorkItemsById(List<Long> workItemIds, String...fieldsToInclude) {
+        return ConnectorExecutors.join(getWorkItemsByIdsAsync(workItemIds, fieldsToInclude));
+    }
+
+    /**
+     * Asynchronous retrieval of work items details by ID, in batches of 200.
+     * Batches are retrieved in parallel, but returned work items are in the same order as the passed IDs.
+     *
+     * if fieldsToInclude is empty, all fields are returned.
+     */
+    public CompletableFuture<List<WorkItem>> getWorkItemsByIdsAsync(List<Long> workItemIds, String...fieldsToInclude) {
 
         if (workItemIds == null || workItemIds.isEmpty()) {
-            return new ArrayList<>();
+            return CompletableFuture.completedFuture(new ArrayList<>());
         }
 
-        List<WorkItem> workItems = new ArrayList<>(workItemIds.size());
-
         List<List<Long>> batchedIds = com.google.common.collect.Lists.partition(workItemIds, WORK_ITEMS_BATCH_SIZE);
 
-        for (List<Long> workItemIdsBatch : batchedIds) {
-            List<WorkItem> workItemsBatch = getWorkItemsByIds(workItemIdsBatch, fieldsToInclude);
-            workItems.addAll(workItemsBatch);
-        }
-
-        return workItems;
+        return ConnectorExecutors.mapInOrderAsync(batchedIds, workItemIdsBatch -> getWorkItemsBatchAsync(workItemIdsBatch, fieldsToInclude), restClient.getMaxConcurrency())
+                .thenApply(workItemsBatches -> {
+                    List<WorkItem> workItems = new ArrayList<>(workItemIds.size());
+                    workItemsBatches.forEach(workItems::addAll);
+                    return workItems;
+                });
     }
 
     /**
@@ -144,42 +218,107 @@ public class AzureDevopsService {
             return batchBreakdownWorkItemsById(workItemIds, fieldsToInclude);
         }
 
-        String workItemsRelativeUrl = AzureDevopsConstants.API_WORK_ITEMS_URL + "&ids="+StringUtils.join(workItemIds, ",");
+        List<WorkItem> workItems = new ArrayList<>(workItemIds.size());
+        forEachWorkItemByIds(workItemIds, workItems::add, fieldsToInclude);
+        return workItems;
+    }
+
+    /**
+     * Retrieves one batch of (at most 200) work items and passes them one at a time to the consumer as they are read from the response stream.
+     *
+     * We use the workitemsbatch end point, which takes the IDs and fields in the POST payload and hence has no URL length limit.
+     * It still doesn't support both "$expand" and "fields" parameters, so if specific fields are needed, relations are not returned:
+     * add {@link AzureDevopsConstants#PARENT_FIELD} to the fields if the parent work item is needed.
+     */
+    private void forEachWorkItemByIds(List<Long> workItemIds, Consumer<WorkItem> consumer, String...fieldsToInclude) {
+        restClient.sendQuery(AzureDevopsConstants.API_WORK_ITEMS_BATCH_URL, getWorkItemsBatchPayload(workItemIds, fieldsToInclude), JsonResponseReaders.forEach("value", WorkItem.class, AzureDevopsGson.get(), consumer));
+    }
+
+    private CompletableFuture<List<WorkItem>> getWorkItemsBatchAsync(List<Long> workItemIds, String...fieldsToInclude) {
+        return restClient.sendQueryAsync(AzureDevopsConstants.API_WORK_ITEMS_BATCH_URL, getWorkItemsBatchPayload(workItemIds, fieldsToInclude), JsonResponseReaders.listOf("value", WorkItem.class, AzureDevopsGson.get()));
+    }
+
+    private static String getWorkItemsBatchPayload(List<Long> workItemIds, String...fieldsToInclude) {
+
+        JsonObject payload = new JsonObject();
+
+        JsonArray ids = new JsonArray(workItemIds.size());
+        workItemIds.forEach(ids::add);
+        payload.add("ids", ids);
 
-        // We cannot use both "expand" and "fields" parameter. So if specific fields are needed, we don't care about relations.
         if (fieldsToInclude != null && fieldsToInclude.length > 0) {
-            workItemsRelativeUrl += "&fields="+StringUtils.join(fieldsToInclude, ',');
+            JsonArray fields = new JsonArray(fieldsToInclude.length);
+            Arrays.stream(fieldsToInclude).forEach(fields::add);
+            payload.add("fields", fields);
         } else {
-            workItemsRelativeUrl += "&$expand=relations";
+            payload.addProperty("$expand", "Relations");
         }
 
-        return responseToListOf(WorkItem.class, restClient.sendGet(workItemsRelativeUrl));
+        return payload.toString();
     }
 
-    /** Runs a WIQL and returns the list of matching work items ids.
-     * Project is mandatory, as it will help ensure that no more than 20000 work items are matching the query (hard max limit).
+    /** Runs a WIQL and returns the list of matching work items ids, sorted by ID.
+     * A single WIQL cannot return more than 20000 work items (hard max limit), so the query is run by pages of IDs
+     * (keyset pagination on [System.Id]) until all matching work items are retrieved.
+     * Pages are queried with a copy of the WIQL builder, which is left unchanged.
      */
     private List<Long> runWIQL(WIQLBuilder wiql, String projectId) {
-        String wiqlRelativeUrl = "/" + projectId + AzureDevopsConstants.API_WIQL_SUFFIX_URL;
+        List<Long> workItemIds = new ArrayList<>();
+        Long lastId = null;
+        List<Long> page;
+
+        WIQLBuilder pageWiql = new WIQLBuilder(wiql).orderById(true);
+        do {
+            pageWiql.filterByIdGreaterThan(lastId);
+            page = restClient.sendQuery(getWIQLRelativeUrl(pageWiql, projectId, WIQL_PAGE_SIZE), getWIQLPayload(pageWiql), JsonResponseReaders.idsOf("workItems"));
+            workItemIds.addAll(page);
+            lastId = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() >= WIQL_PAGE_SIZE);
 
-        if (wiql.needsTime()) {
-            wiqlRelativeUrl +=  "&timePrecision=true";
+        return workItemIds;
+    }
+
+    /**
+     * Asynchronous version of {@link #runWIQL}, that passes each page of IDs to the consumer as soon as it's retrieved, in order.
+     * The next page is requested right away, so the consumer should start processing the page asynchronously.
+     *
+     * @param stopped checked before each page, no more pages are requested once it returns true.
+     * @return a future that completes when all pages have been passed to the consumer, or when stopped.
+     */
+    private CompletableFuture<Void> runPagedWIQLAsync(WIQLBuilder wiql, String projectId, Long afterId, Consumer<List<Long>> pageConsumer, BooleanSupplier stopped) {
+        if (stopped.getAsBoolean()) {
+            return CompletableFuture.completedFuture(null);
         }
 
-        String payload = "{\n" +
-                "  \"query\": \""+wiql.build()+"\"\n" +
-                "}";
+        // The WIQL builder is shared by all pages (and may be by the caller), so each page is queried with its own copy.
+        WIQLBuilder pageWiql = new WIQLBuilder(wiql).orderById(true).filterByIdGreaterThan(afterId);
+
+        return restClient.sendQueryAsync(getWIQLRelativeUrl(pageWiql, projectId, WIQL_PAGE_SIZE), getWIQLPayload(pageWiql), JsonResponseReaders.idsOf("workItems"))
+                .thenCompose(page -> {
+                    if (!page.isEmpty() && !stopped.getAsBoolean()) {
+                        pageConsumer.accept(page);
+                    }
+                    if (page.size() < WIQL_PAGE_SIZE) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return runPagedWIQLAsync(wiql, projectId, page.get(page.size() - 1), pageConsumer, stopped);
+                });
+    }
 
-        String response = restClient.sendPost(wiqlRelativeUrl, payload);
+    private static String getWIQLRelativeUrl(WIQLBuilder wiql, String projectId, int top) {
+        String wiqlRelativeUrl = "/" + projectId + AzureDevopsConstants.API_WIQL_SUFFIX_URL + "&$top=" + top;
 
-        JsonElement listResponse = JsonParser.parseString(response);
-        JsonArray workItems = listResponse.getAsJsonObject().get("workItems").getAsJsonArray();
-        List<Long> workItemIds = new ArrayList<>(workItems.size());
-        for (JsonElement workItem : workItems) {
-            workItemIds.add(workItem.getAsJsonObject().get("id").getAsLong());
+        if (wiql.needsTime()) {
+            wiqlRelativeUrl +=  "&timePrecision=true";
         }
 
-        return workItemIds;
+        return wiqlRelativeUrl;
+    }
+
+    private static String getWIQLPayload(WIQLBuilder wiql) {
+        return "{\n" +
+                "  \"query\": \""+wiql.build()+"\"\n" +
+                "}";
     }
 
     public List<WorkItemType> getWorkItemTypesForProject(String projectId) {
@@ -189,20 +328,13 @@ public class AzureDevopsService {
             return new ArrayList<>();
         }
 
-        List<WorkItemType> wits = projectToWorkItemTypesCache.get(projectId);
-
-        if (wits != null) {
-            return wits;
-        }
-
-        // Make REST call to get info.
-        String workItemTypesRelativeUrl = "/"+projectId + AzureDevopsConstants.API_WORK_ITEM_TYPES_URL;
-
-        wits = responseToListOf(WorkItemType.class, restClient.sendGet(workItemTypesRelativeUrl));
+        // Work item types are defined in the process, so all projects using the same process share them.
+        return getCachedMetadata(WORK_ITEM_TYPES_CACHE, getProcessKey(projectId), () -> {
+            // Make REST call to get info.
+            String workItemTypesRelativeUrl = "/"+projectId + AzureDevopsConstants.API_WORK_ITEM_TYPES_URL;
 
-        projectToWorkItemTypesCache.put(projectId, wits);
-
-        return wits;
+            return Collections.unmodifiableList(restClient.sendGetCached(workItemTypesRelativeUrl, METADATA_RESPONSE_TTL_SECONDS, listOf(WorkItemType.class)));
+        });
     }
 
     public Iteration getIteration(String iterationPath) {
@@ -212,49 +344,65 @@ public class AzureDevopsService {
 
         String projectKey = iterationPath.substring(0, iterationPath.indexOf('\\'));
 
-        List<Iteration> projectIterations = projectIterationsCache.get(projectKey);
-        if (projectIterations == null) {
-            // Loading project Iterations with REST call and caching them.
-            String iterationsRelativeUrl = "/"+projectKey + AzureDevopsConstants.API_ITERATIONS_URL;
-
-            projectIterations = responseToListOf(Iteration.class, restClient.sendGet(iterationsRelativeUrl));
-
-            projectIterationsCache.put(projectKey, projectIterations);
-        }
+        return getIterationIndex(projectKey).get(iterationPath);
+    }
 
-        for (Iteration iteration : projectIterations) {
-            if (iterationPath.equalsIgnoreCase(iteration.getPath())) {
-                return iteration;
-            }
-        }
+    /**
+     * @param projectKey project name or ID.
+     * @return the iterations of all teams of the project, indexed by path.
+     */
+    public IterationIndex getIterationIndex(String projectKey) {
+        return getCachedMetadata(ITERATIONS_CACHE, projectKey.toLowerCase(), () -> {
+            // Loading all project Iterations in a single REST call and caching them.
+            String iterationNodesRelativeUrl = "/"+projectKey + AzureDevopsConstants.API_ITERATION_NODES_URL;
 
-        return null;
+            return IterationIndex.fromClassificationNodes(restClient.sendGetCached(iterationNodesRelativeUrl, METADATA_RESPONSE_TTL_SECONDS, JsonResponseReaders.objectOf(JsonObject.class, AzureDevopsGson.get())));
+        });
     }
 
 
     /**
      * Getting list of Fields in Azure DevOps requires two REST calls:
      * - One on the Work Item Type end point to get the fields of this work item type and the possible values (list)
-     * - One on the "Fields" end point to get the field type and extra info.
+     * - One on the "Fields" end point to get the field type and extra info. This one is the same for all work item types and is only retrieved once per organization.
      */
     public List<Field> getFieldsDetails(String projectId, String workItemTypeId) {
+        // Fields and their allowed values are defined in the process, so all projects using the same process share them.
+        return getCachedMetadata(WORK_ITEM_TYPE_FIELDS_CACHE, getProcessKey(projectId)+"_"+workItemTypeId, () -> loadFieldsDetails(projectId, workItemTypeId));
+    }
 
-        List<Field> witFields  = workItemTypeFieldsCache.get(projectId+"_"+workItemTypeId);
+    /**
+     * Many projects usually share the same few processes, and work item types & fields are defined at the process level.
+     * We resolve the process of each project once, so that process metadata can be cached (and retrieved) only once for all the projects using it.
+     *
+     * @return the process type ID of the project, or the project ID itself if it cannot be retrieved (older TFS on-prem).
+     */
+    private String getProcessKey(String projectId) {
+        return getCachedMetadata(PROJECT_PROCESS_CACHE, projectId, () -> {
+            String projectUrl = AzureDevopsConstants.API_PROJECTS_END_POINT + "/" + projectId + AzureDevopsConstants.VERSION_7_VERSION_SUFFIX + "&includeCapabilities=true";
+            try {
+                JsonObject project = restClient.sendGetCached(projectUrl, METADATA_RESPONSE_TTL_SECONDS, JsonResponseReaders.objectOf(JsonObject.class, AzureDevopsGson.get()));
+                JsonElement processTemplate = project.has("capabilities") && project.getAsJsonObject("capabilities").has("processTemplate")
+                        ? project.getAsJsonObject("capabilities").get("processTemplate") : null;
+                if (processTemplate != null && processTemplate.isJsonObject() && processTemplate.getAsJsonObject().has("templateTypeId")) {
+                    return "process:" + processTemplate.getAsJsonObject().get("templateTypeId").getAsString();
+                }
+            } catch (Exception e) {
+                logger.warn("Cannot retrieve process of Azure DevOps project " + projectId + ", metadata will be cached per project", e);
+            }
+            return "project:" + projectId;
+        });
+    }
 
-        if (witFields != null) {
-            return witFields;
-        }
+    private List<Field> loadFieldsDetails(String projectId, String workItemTypeId) {
 
         // First we get fields from work item type (to have allowed Values)
         String workItemTypeFieldsUrl = "/"+projectId + "/"  + AzureDevopsConstants.API_WORK_ITEM_TYPES_ENDPOINT + "/"+workItemTypeId
                 + "/fields" + AzureDevopsConstants.VERSION_7_VERSION_SUFFIX + "&$expand=allowedValues";
-        witFields  = responseToListOf(Field.class, restClient.sendGet(workItemTypeFieldsUrl));
+        List<Field> witFields  = restClient.sendGetCached(workItemTypeFieldsUrl, METADATA_RESPONSE_TTL_SECONDS, listOf(Field.class));
 
         // Then we get fields details to get type
-        String fieldsDetailsUrl = "/"+projectId + AzureDevopsConstants.API_FIELDS_URL;
-
-        List<Field> detailedFields = responseToListOf(Field.class, restClient.sendGet(fieldsDetailsUrl));
-        Map<String, Field> detailedFieldByReferenceName = detailedFields.stream().collect(Collectors.toMap(Field::getReferenceName, Function.identity()));
+        Map<String, Field> detailedFieldByReferenceName = getFieldsCatalogue();
 
         // We now specify the type of all work item type fields.
         for (Field f : witFields) {
@@ -264,9 +412,53 @@ public class AzureDevopsService {
             }
         }
 
-        workItemTypeFieldsCache.put(projectId+"_"+workItemTypeId, witFields);
+        return Collections.unmodifiableList(witFields);
+    }
+
+    /**
+     * Retrieves the fields details of all the work item types of the project in one pass, running the work item types fields calls in parallel.
+     * This is used to warm up the cache when the list of work item types is displayed, so that fields of any selected type are readily available.
+     *
+     * @return Map<workItemTypeName, List<Field>>
+     */
+    public Map<String, List<Field>> getAllFieldsDetails(final String projectId) {
+        return ConnectorExecutors.join(getAllFieldsDetailsAsync(projectId));
+    }
+
+    /**
+     * Asynchronous version of {@link #getAllFieldsDetails(String)}: each REST call runs in its own connector task, and no connector thread waits for another one.
+     */
+    public CompletableFuture<Map<String, List<Field>>> getAllFieldsDetailsAsync(final String projectId) {
+
+        Executor executor = ConnectorExecutors.getSharedExecutor();
+
+        // The fields catalogue is needed by all work item types, so we get it first rather than having all parallel calls wait for it.
+        CompletableFuture<List<WorkItemType>> workItemTypesFuture = CompletableFuture.supplyAsync(() -> {
+            getFieldsCatalogue();
+            return getWorkItemTypesForProject(projectId);
+        }, executor);
+
+        return workItemTypesFuture.thenCompose(workItemTypes -> ConnectorExecutors.mapInOrderAsync(workItemTypes,
+                wit -> CompletableFuture.supplyAsync(() -> getFieldsDetails(projectId, wit.getName()), executor),
+                restClient.getMaxConcurrency()).thenApply(fieldsDetails -> {
+                    Map<String, List<Field>> fieldsByWorkItemType = new LinkedHashMap<>();
+                    for (int i = 0 ; i < workItemTypes.size() ; i++) {
+                        fieldsByWorkItemType.put(workItemTypes.get(i).getName(), fieldsDetails.get(i));
+                    }
+                    return fieldsByWorkItemType;
+                }));
+    }
 
-        return witFields;
+    /**
+     * @return All the fields defined in the organization, indexed by reference name.
+     */
+    private Map<String, Field> getFieldsCatalogue() {
+        return getCachedMetadata(FIELDS_CATALOGUE_CACHE, "organization", () -> {
+            Map<String, Field> fieldsByReferenceName = new HashMap<>();
+            restClient.sendGetCached(AzureDevopsConstants.API_FIELDS_URL, METADATA_RESPONSE_TTL_SECONDS, JsonResponseReaders.forEach("value", Field.class, AzureDevopsGson.get(),
+                    field -> fieldsByReferenceName.putIfAbsent(field.getReferenceName(), field)));
+            return Collections.unmodifiableMap(fieldsByReferenceName);
+        });
     }
 
     public WorkItem updateWorkItem(String projectId, String workItemId, Iterator<Map.Entry<String, DataField>> fields) {
@@ -284,7 +476,7 @@ public class AzureDevopsService {
             payload.add(op);
         }
 
-        return responseTo(WorkItem.class, restClient.sendPatch(updateWorkItemUrl, payload.toString()));
+        return restClient.sendPatch(updateWorkItemUrl, payload.toString(), JsonResponseReaders.objectOf(WorkItem.class, AzureDevopsGson.get()));
     }
 
     private void setValuePropertyFromDataField(JsonObject o, DataField field) {
@@ -393,8 +585,12 @@ public class AzureDevopsService {
     }
 
     public String testConnection() {
+        // Testing the connection is what admins do after changing the connector configuration, so we make sure no stale metadata is used afterwards.
+        AzureDevopsMetadataCache.getInstance().invalidate(restClient.getConfig().getTenantKey());
+        AzureDevopsResponseCache.getInstance().invalidate(restClient.getConfig().getTenantKey());
+        AzureDevopsHttpClientRegistry.reset(restClient.getConfig());
         try {
-            ConnectionData data = responseTo(ConnectionData.class, restClient.sendGet(AzureDevopsConstants.API_CONNECTION_DATA_URL));
+            ConnectionData data = restClient.sendGet(AzureDevopsConstants.API_CONNECTION_DATA_URL, JsonResponseReaders.objectOf(ConnectionData.class, AzureDevopsGson.get()));
         } catch (Exception e) {
             logger.error("Error when testing connectivity of azure devops connector", e);
             return e.getMessage();
@@ -403,6 +599,20 @@ public class AzureDevopsService {
         return null;
     }
 
+    /**
+     * @return the current Azure DevOps rate limiting state of this organization & credentials, to check whether the connector is being throttled.
+     */
+    public AzureDevopsRequestThrottler.ThrottleState getThrottleState() {
+        return restClient.getThrottleState();
+    }
+
+    /**
+     * @return how many bytes were received from this organization, before and after decompression.
+     */
+    public AzureDevopsTransferMetrics getTransferMetrics() {
+        return restClient.getTransferMetrics();
+    }
+
 
     public List<WorkItem> getAllWorkItemsInfoFromProject(String projectId, Collection<String> workItemTypes, String... statusesToExclude) {
         // We first retrieve the list of all work items IDs by using WIQL, and then we retrieve work items details in batch of 200.
@@ -417,11 +627,14 @@ public class AzureDevopsService {
 
     }
 
-    public List<WorkItem> getProjectWorkItemAndChildren(String projectId, String specificWorkItemId, Set<String> workItemTypes, String... statusesToExclude) {
+    /**
+     * @param projection the fields to retrieve for each work item.
+     */
+    public List<WorkItem> getProjectWorkItemAndChildren(String projectId, String specificWorkItemId, Set<String> workItemTypes, WorkItemProjection projection, String... statusesToExclude) {
         // We get the children recursively until there's no more children to return.
         List<Long> workItemIds = runDescendantLinksWIQL(projectId, specificWorkItemId, workItemTypes, statusesToExclude);
 
-        List<WorkItem> workItems = getWorkItemsByIds(workItemIds);
+        List<WorkItem> workItems = getWorkItemsByIds(workItemIds, projection.getFields());
 
         return workItems;
     }
@@ -449,20 +662,16 @@ public class AzureDevopsService {
                 "  \"query\": \""+wiql+"\"\n" +
                 "}";
 
-        String response = restClient.sendPost(wiqlRelativeUrl, payload);
-
-        JsonElement listResponse = JsonParser.parseString(response);
-        JsonArray workItemRelations = listResponse.getAsJsonObject().get("workItemRelations").getAsJsonArray();
-        List<Long> workItemIds = new ArrayList<>(workItemRelations.size());
-        for (JsonElement workItemRelation : workItemRelations) {
-            if (workItemRelation.isJsonObject() && !workItemRelation.getAsJsonObject().isJsonNull()
-                    && workItemRelation.getAsJsonObject().has("target")) {
-                JsonElement target = workItemRelation.getAsJsonObject().get("target");
+        // Each relation is small, so we only bind one relation at a time rather than the whole response.
+        List<Long> workItemIds = new ArrayList<>();
+        restClient.sendQuery(wiqlRelativeUrl, payload, JsonResponseReaders.forEach("workItemRelations", JsonObject.class, AzureDevopsGson.get(), workItemRelation -> {
+            if (workItemRelation != null && workItemRelation.has("target")) {
+                JsonElement target = workItemRelation.get("target");
                 if (target != null && !target.isJsonNull() && target.isJsonObject() && target.getAsJsonObject().has("id")) {
                     workItemIds.add(target.getAsJsonObject().get("id").getAsLong());
                 }
             }
-        }
+        }));
 
         return workItemIds;
     }
@@ -39,9 +39,41 @@ public class AzureDevopsServiceProvider {
 
         restConfig.setOrganizationUrl(organizationUrl);
 
+        int maxConnections = getPositiveIntParam(config, AzureDevopsConstants.KEY_MAX_CONNECTIONS, AzureDevopsConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        restConfig.setMaxConnectionsPerRoute(maxConnections);
+        restConfig.setMaxConnectionsTotal(Math.max(maxConnections, AzureDevopsConstants.DEFAULT_MAX_CONNECTIONS_TOTAL));
+
+        // There's no point running more requests in parallel than we have connections for.
+        int maxParallelRequests = getPositiveIntParam(config, AzureDevopsConstants.KEY_MAX_PARALLEL_REQUESTS, AzureDevopsConstants.DEFAULT_MAX_PARALLEL_REQUESTS);
+        restConfig.setMaxParallelRequests(Math.min(maxParallelRequests, maxConnections));
+
+        restConfig.setMaxThrottlingWaitSeconds(getPositiveIntParam(config, AzureDevopsConstants.KEY_MAX_THROTTLING_WAIT, AzureDevopsConstants.DEFAULT_MAX_THROTTLING_WAIT_SECONDS));
+
+        restConfig.setTimeouts(getTimeoutParam(config, AzureDevopsConstants.KEY_CONNECT_TIMEOUT, AzureDevopsConstants.DEFAULT_CONNECT_TIMEOUT_SECONDS),
+                getTimeoutParam(config, AzureDevopsConstants.KEY_REQUEST_TIMEOUT, AzureDevopsConstants.DEFAULT_REQUEST_TIMEOUT_SECONDS),
+                getTimeoutParam(config, AzureDevopsConstants.KEY_QUERY_TIMEOUT, AzureDevopsConstants.DEFAULT_QUERY_TIMEOUT_SECONDS));
+
         return new AzureDevopsService(new AzureDevopsRestClient(restConfig));
     }
 
+    private static int getPositiveIntParam(ValueSet config, String key, int defaultValue) {
+        String value = config.get(key);
+        if (StringUtils.isBlank(value) || !StringUtils.isNumeric(value.trim())) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            return intValue > 0 ? intValue : defaultValue;
+        } catch (NumberFormatException e) {
+            // Too large for an int.
+            return defaultValue;
+        }
+    }
+
+    private static int getTimeoutParam(ValueSet config, String key, int defaultValue) {
+        return Math.min(getPositiveIntParam(config, key, defaultValue), AzureDevopsConstants.MAX_TIMEOUT_SECONDS);
+    }
+
     public static String getPersonalAccessToken(ValueSet config) {
         String integrationToken = config.get(AzureDevopsConstants.KEY_PERSONAL_ACCESS_TOKEN);
         if (!StringUtils.isBlank(integrationToken)) {
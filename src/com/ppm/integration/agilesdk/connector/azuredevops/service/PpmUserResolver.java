@@ -0,0 +1,123 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.service;
+
+import com.hp.ppm.user.model.User;
+import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItem;
+import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItemIdentity;
+import com.ppm.integration.agilesdk.provider.UserProvider;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Resolves Azure DevOps identities (unique name / display name) to PPM users.
+ *
+ * Work items typically reference the same few users over and over, so each distinct identity is only looked up once
+ * in PPM and the result (including "no matching user") is remembered for the life of this resolver.
+ * A resolver should be created for each import or sync operation, so that changes to PPM users are picked up by the next one.
+ *
+ * This class is not thread safe, and must be used from the PPM thread as UserProvider relies on it.
+ */
+public class PpmUserResolver {
+
+    private final static Logger logger = Logger.getLogger(PpmUserResolver.class);
+
+    /**
+     * UserProvider#getByFullName was introduced in PPM 2023.3 - we look it up only once with reflection,
+     * so that this code still works on older versions of PPM where it's not available.
+     */
+    private static final Method getByFullNameMethod = findGetByFullNameMethod();
+
+    private final UserProvider userProvider;
+
+    private final Long projectId;
+
+    private final Map<String, Optional<User>> usersByIdentity = new HashMap<>();
+
+    /**
+     * @param projectId the PPM project ID, used to narrow down the matches by full name. Can be null.
+     */
+    public PpmUserResolver(UserProvider userProvider, Long projectId) {
+        this.userProvider = userProvider;
+        this.projectId = projectId;
+    }
+
+    private static Method findGetByFullNameMethod() {
+        try {
+            return UserProvider.class.getMethod("getByFullName", String.class, Long.class, boolean.class);
+        } catch (Exception e) {
+            // We do nothing, the method doesn't exist
+            return null;
+        }
+    }
+
+    /**
+     * Resolves in one pass all the distinct identities referenced in the passed user field of the work items,
+     * so that later calls to {@link #resolve(List)} for these work items don't hit PPM anymore.
+     */
+    public void resolveAll(Collection<WorkItem> workItems, String fieldName) {
+        for (WorkItem workItem : workItems) {
+            resolve(workItem.getIdentityField(fieldName));
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Resolved " + usersByIdentity.size() + " distinct identities in " + fieldName + " of " + workItems.size() + " work items");
+        }
+    }
+
+    /**
+     * @return the distinct PPM users matching these identities, in the same order. Identities that match no PPM user are ignored.
+     */
+    public List<User> resolve(List<WorkItemIdentity> identities) {
+        List<User> users = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+
+        for (WorkItemIdentity identity : identities) {
+            User user = resolve(identity.getUniqueName(), identity.getDisplayName());
+            if (user != null && userIds.add(user.getUserId())) {
+                users.add(user);
+            }
+        }
+
+        return users;
+    }
+
+    /**
+     * @return the PPM user matching the email or username, or the full name if no user matches the former. Null if no user matches.
+     */
+    public User resolve(String emailOrUsername, String fullName) {
+        String identityKey = StringUtils.defaultString(emailOrUsername).trim() + '\n' + StringUtils.defaultString(fullName).trim();
+
+        Optional<User> user = usersByIdentity.get(identityKey);
+        if (user == null) {
+            user = Optional.ofNullable(lookup(emailOrUsername, fullName));
+            usersByIdentity.put(identityKey, user);
+        }
+
+        return user.orElse(null);
+    }
+
+    private User lookup(String emailOrUsername, String fullName) {
+        User user = null;
+
+        if (!StringUtils.isBlank(emailOrUsername)) {
+            user = userProvider.getByEmail(emailOrUsername.trim());
+
+            if (user == null) {
+                user = userProvider.getByUsername(emailOrUsername.trim());
+            }
+        }
+
+        if (user == null && !StringUtils.isBlank(fullName) && getByFullNameMethod != null) {
+            try {
+                user = (User) getByFullNameMethod.invoke(userProvider, fullName.trim(), projectId, false);
+            } catch (Exception e) {
+                logger.debug("Failed to retrieve PPM user by full name " + fullName, e);
+            }
+
+            // Above reflection code will just call this on PPM 2023.3+:
+            // user = userProvider.getByFullName(fullName.trim(), projectId, false);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,45 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.service;
+
+import com.ppm.integration.agilesdk.ValueSet;
+import com.ppm.integration.agilesdk.connector.azuredevops.AzureDevopsConstants;
+import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItemExternalTask;
+import com.ppm.integration.agilesdk.connector.azuredevops.util.AzureDevOpsUtils;
+
+import java.util.*;
+
+/**
+ * The list of work item fields that a given operation actually needs, so that we only retrieve these from Azure DevOps.
+ * Work items usually have many (custom, HTML) fields that we never read, and which make the bulk of every payload.
+ *
+ * An empty projection means that all fields (and relations) will be retrieved.
+ */
+public class WorkItemProjection {
+
+    private final Set<String> fields = new LinkedHashSet<>();
+
+    /**
+     * Fields needed to build the work plan from the work items, based on the work plan mapping config,
+     * plus any extra field configured in the connector.
+     */
+    public static WorkItemProjection forWorkPlan(ValueSet values) {
+        WorkItemProjection projection = new WorkItemProjection();
+
+        projection.addFields(WorkItemExternalTask.IMPORTED_FIELDS);
+
+        // We don't retrieve relations when specifying fields, so we need the parent field to rebuild the work items hierarchy.
+        projection.addFields(Collections.singletonList(AzureDevopsConstants.PARENT_FIELD));
+
+        projection.addFields(AzureDevOpsUtils.extractStringListParams(values.get(AzureDevopsConstants.KEY_WP_EXTRA_FIELDS)));
+
+        return projection;
+    }
+
+    public WorkItemProjection addFields(Collection<String> fieldsReferenceNames) {
+        fields.addAll(fieldsReferenceNames);
+        return this;
+    }
+
+    public String[] getFields() {
+        return fields.toArray(new String[fields.size()]);
+    }
+}
@@ -3,6 +3,7 @@ package com.ppm.integration.agilesdk.connector.azuredevops.util;
 import com.ppm.integration.agilesdk.connector.azuredevops.model.Field;
 import com.ppm.integration.agilesdk.connector.azuredevops.model.WorkItem;
 import com.ppm.integration.agilesdk.connector.azuredevops.service.AzureDevopsService;
+import com.ppm.integration.agilesdk.connector.azuredevops.service.PpmUserResolver;
 import com.ppm.integration.agilesdk.dm.*;
 import com.ppm.integration.agilesdk.model.AgileEntity;
 import org.apache.commons.lang.StringUtils;
@@ -10,7 +11,10 @@ import org.apache.commons.lang.StringUtils;
 import java.util.List;
 
 public class AgileEntityUtils {
-    public static AgileEntity workItemToAgileEntity(WorkItem wi, AzureDevopsService service, List<Field> fieldsInfo) {
+    /**
+     * @param userResolver used to resolve user fields; share it between all the work items converted in one operation.
+     */
+    public static AgileEntity workItemToAgileEntity(WorkItem wi, AzureDevopsService service, List<Field> fieldsInfo, PpmUserResolver userResolver) {
 
         if (wi == null) {
             return null;
@@ -22,13 +26,13 @@ public class AgileEntityUtils {
         ae.setLastUpdateTime(wi.getLastUpdateTime());
 
         for (Field field : fieldsInfo) {
-            ae.addField(field.getReferenceName(), getDataFieldFromField(wi, field, service));
+            ae.addField(field.getReferenceName(), getDataFieldFromField(wi, field, userResolver));
         }
 
         return ae;
     }
 
-    private static DataField getDataFieldFromField(WorkItem wi, Field field, AzureDevopsService service) {
+    private static DataField getDataFieldFromField(WorkItem wi, Field field, PpmUserResolver userResolver) {
         DataField.DATA_TYPE dataType = getAgileFieldType(field);
 
         DataField f;
@@ -37,7 +41,7 @@ public class AgileEntityUtils {
 
             case USER:
 
-                List<com.hp.ppm.user.model.User> users = wi.getResourceField(field.getReferenceName(), null, service.getUserProvider());
+                List<com.hp.ppm.user.model.User> users = userResolver.resolve(wi.getIdentityField(field.getReferenceName()));
                 if (users != null && users.size() == 1) {
                     f = new UserField();
                     com.ppm.integration.agilesdk.dm.User user = new com.ppm.integration.agilesdk.dm.User();
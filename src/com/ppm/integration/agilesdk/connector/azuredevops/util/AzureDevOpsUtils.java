@@ -13,12 +13,31 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.TimeZone;
 import java.util.stream.Collectors;
 
 public class AzureDevOpsUtils {
 
     private final static Logger logger = LogManager.getLogger(AzureDevOpsUtils.class);
-    private final static SimpleDateFormat shortDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+    /** Returned by {@link #parseDateMillis(String)} when there's no valid date. */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final long DAYS_0000_TO_1970 = (146097L * 5L) - (30L * 365L + 7L);
+
+    private static final int INVALID_OFFSET = Integer.MIN_VALUE;
+
+    /** Must be a power of 2. */
+    private static final int PARSED_DATES_CACHE_SIZE = 256;
+
+    /**
+     * Recently parsed dates, indexed by hash. Entries are immutable, so they can be read and replaced by any thread without locking;
+     * a lost update only means parsing a date again.
+     */
+    private static final ParsedDate[] parsedDatesCache = new ParsedDate[PARSED_DATES_CACHE_SIZE];
+
     private final static DateTimeFormatter longDateTimeFormatter = new DateTimeFormatterBuilder()
             // date/time
             .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
@@ -40,23 +59,216 @@ public class AzureDevOpsUtils {
         return Arrays.stream(StringUtils.split(s.replace(',', ';'), ';')).map(str -> str.trim()).filter(str -> !StringUtils.isBlank(str)).collect(Collectors.toList());
     }
 
+    /**
+     * Parses a date as sent by Azure DevOps: "yyyy-MM-dd" (local time zone) or "yyyy-MM-ddTHH:mm:ss[.fffffff]" with a "Z", "+HH:MM", "+HHMM" or "+HH" offset.
+     *
+     * @return the date, or null if it's missing or cannot be parsed.
+     */
     public static Date parseDateStr(String dateStr) {
+        long epochMillis = parseDateMillis(dateStr);
+        return epochMillis == NO_DATE ? null : new Date(epochMillis);
+    }
+
+    /**
+     * Same as {@link #parseDateStr(String)}, without allocating a Date.
+     *
+     * @return the date in epoch ms, or {@link #NO_DATE} if it's missing or cannot be parsed.
+     */
+    public static long parseDateMillis(String dateStr) {
 
         if (dateStr == null || "null".equalsIgnoreCase(dateStr)) {
-            return null;
+            return NO_DATE;
+        }
+
+        // The same iteration and work item dates are read over and over during a work plan import.
+        int cacheIndex = dateStr.hashCode() & (PARSED_DATES_CACHE_SIZE - 1);
+        ParsedDate cached = parsedDatesCache[cacheIndex];
+        if (cached != null && cached.dateStr.equals(dateStr)) {
+            return cached.epochMillis;
+        }
+
+        long epochMillis = parseIsoDateMillis(dateStr);
+        if (epochMillis == NO_DATE) {
+            epochMillis = parseDateMillisWithFormatter(dateStr);
+        }
+
+        parsedDatesCache[cacheIndex] = new ParsedDate(dateStr, epochMillis);
+        return epochMillis;
+    }
+
+    /**
+     * Parses the exact formats sent by Azure DevOps without any intermediate object.
+     *
+     * @return NO_DATE if the string is not in one of these formats, in which case it should be parsed with the more lenient formatters.
+     */
+    private static long parseIsoDateMillis(String s) {
+        int length = s.length();
+        if (length < 10 || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return NO_DATE;
+        }
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NO_DATE;
+        }
+        long epochDay = toEpochDay(year, month, day);
+
+        if (length == 10) {
+            // Date only: midnight in the local time zone.
+            long utcMidnight = epochDay * MILLIS_PER_DAY;
+            TimeZone timeZone = TimeZone.getDefault();
+            long localMidnight = utcMidnight - timeZone.getOffset(utcMidnight);
+            int offset = timeZone.getOffset(localMidnight);
+            // On the few days where the offset changes around midnight, the formatter decides whether midnight is skipped or repeated.
+            if (timeZone.getOffset(localMidnight - MILLIS_PER_DAY / 2) != offset || timeZone.getOffset(localMidnight + MILLIS_PER_DAY / 2) != offset) {
+                return NO_DATE;
+            }
+            return utcMidnight - offset;
+        }
+
+        if (length < 20 || s.charAt(10) != 'T' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return NO_DATE;
+        }
+
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NO_DATE;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (s.charAt(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            while (pos < length && pos - fractionStart < 9 && isDigit(s.charAt(pos))) {
+                // Only the first 3 digits matter, the rest is truncated like java.time does when converting to ms.
+                if (pos - fractionStart < 3) {
+                    millis = millis * 10 + (s.charAt(pos) - '0');
+                }
+                pos++;
+            }
+            int fractionLength = pos - fractionStart;
+            if (fractionLength == 0) {
+                return NO_DATE;
+            }
+            for (int i = fractionLength ; i < 3 ; i++) {
+                millis *= 10;
+            }
+        }
+
+        int offsetSeconds = parseOffsetSeconds(s, pos);
+        if (offsetSeconds == INVALID_OFFSET) {
+            return NO_DATE;
+        }
+
+        return ((epochDay * 24 + hour) * 60 + minute) * 60000L + (second - offsetSeconds) * 1000L + millis;
+    }
+
+    /** @return the offset in seconds of "Z", "+HH:MM", "+HHMM" or "+HH" at the end of the string, or INVALID_OFFSET. */
+    private static int parseOffsetSeconds(String s, int pos) {
+        int remaining = s.length() - pos;
+        if (remaining == 1 && s.charAt(pos) == 'Z') {
+            return 0;
+        }
+        if (remaining != 3 && remaining != 5 && remaining != 6) {
+            return INVALID_OFFSET;
+        }
+
+        char sign = s.charAt(pos);
+        if (sign != '+' && sign != '-') {
+            return INVALID_OFFSET;
+        }
+
+        int hours = digits(s, pos + 1, 2);
+        int minutes = 0;
+        if (remaining == 5) {
+            minutes = digits(s, pos + 3, 2);
+        } else if (remaining == 6) {
+            minutes = s.charAt(pos + 3) == ':' ? digits(s, pos + 4, 2) : -1;
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return INVALID_OFFSET;
+        }
+
+        int offsetSeconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -offsetSeconds : offsetSeconds;
+    }
+
+    /** @return the value of the count digits starting at start, or -1 if they're not all digits. */
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start ; i < start + count ; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
         }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /** Same computation as LocalDate.toEpochDay(), for years 0 to 9999. */
+    private static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!(year % 4 == 0 && (year % 100 != 0 || year % 400 == 0))) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
 
+    /** Handles any other format accepted by the formatters, such as dates without seconds. */
+    private static long parseDateMillisWithFormatter(String dateStr) {
         try {
             if (dateStr.contains("T")) {
                 ZonedDateTime date = ZonedDateTime.parse(dateStr, longDateTimeFormatter);
-                return Date.from(date.toInstant());
+                return date.toInstant().toEpochMilli();
             } else {
-                // Format yyyy-MM-dd
-                return shortDateFormat.parse(dateStr);
+                // Format yyyy-MM-dd. SimpleDateFormat is not thread safe, so it cannot be shared.
+                return new SimpleDateFormat("yyyy-MM-dd").parse(dateStr).getTime();
             }
         } catch (Exception e) {
             logger.error("Failed to parse Date string " + dateStr + " , ignoring date.", e);
-            return null;
+            return NO_DATE;
+        }
+    }
+
+    private static class ParsedDate {
+
+        private final String dateStr;
+
+        private final long epochMillis;
+
+        private ParsedDate(String dateStr, long epochMillis) {
+            this.dateStr = dateStr;
+            this.epochMillis = epochMillis;
         }
     }
 }
@@ -0,0 +1,365 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.util;
+
+import com.kintana.core.logging.LogManager;
+import com.kintana.core.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Threads used by the connector to run REST calls in parallel, outside of the PPM request threads.
+ *
+ * On Java 21+ runtimes, every task runs in its own virtual thread, so that blocking REST calls don't tie up platform threads.
+ * On older runtimes, tasks run in a bounded pool of platform threads. The mode is detected once, when the connector is loaded,
+ * and can be forced to platform threads with the system property {@value #THREAD_MODE_PROPERTY}=platform.
+ *
+ * Tasks of the bounded pool must not wait for other tasks of the pool, as queued tasks could never run if all the threads were waiting:
+ * {@link #mapInOrder} runs sequentially when called from a pool thread, and tasks that fan out should use {@link #mapInOrderAsync} instead.
+ *
+ * Tasks run with this class should only make REST calls to Azure DevOps: PPM services (users, DB, Spring beans...)
+ * should only be used from the calling PPM thread.
+ */
+public class ConnectorExecutors {
+
+    private final static Logger logger = LogManager.getLogger(ConnectorExecutors.class);
+
+    public static final String THREAD_MODE_PROPERTY = "azuredevops.connector.threads";
+
+    private static final String THREAD_NAME_PREFIX = "azure-devops-connector-";
+
+    /** Max number of platform threads when virtual threads are not available. Tasks are queued beyond that. */
+    private static final int MAX_PLATFORM_THREADS = 64;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+
+    private static final ExecutorService sharedExecutor = createSharedExecutor();
+
+    private static final boolean usingVirtualThreads = !(sharedExecutor instanceof ThreadPoolExecutor);
+
+    private ConnectorExecutors() {
+    }
+
+    public static ExecutorService getSharedExecutor() {
+        return sharedExecutor;
+    }
+
+    public static boolean isUsingVirtualThreads() {
+        return usingVirtualThreads;
+    }
+
+    private static ExecutorService createSharedExecutor() {
+        if (!"platform".equalsIgnoreCase(System.getProperty(THREAD_MODE_PROPERTY))) {
+            ExecutorService virtualThreadsExecutor = createVirtualThreadsExecutor();
+            if (virtualThreadsExecutor != null) {
+                logger.info("Azure DevOps connector REST calls will run in virtual threads");
+                return virtualThreadsExecutor;
+            }
+        }
+
+        // Threads are created on demand and die after being idle for a minute, so there's no cost when the connector isn't used.
+        ThreadPoolExecutor platformThreadsExecutor = new ThreadPoolExecutor(MAX_PLATFORM_THREADS, MAX_PLATFORM_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread t = new PlatformPoolThread(runnable, THREAD_NAME_PREFIX + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        platformThreadsExecutor.allowCoreThreadTimeOut(true);
+        return platformThreadsExecutor;
+    }
+
+    /**
+     * @return true if the current thread belongs to the bounded pool of platform threads, and must therefore not wait for other tasks of the pool.
+     */
+    private static boolean isPlatformPoolThread() {
+        return Thread.currentThread() instanceof PlatformPoolThread;
+    }
+
+    /**
+     * The connector is compiled for Java 8, so virtual threads (Java 21+) are created by reflection, i.e.:
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(THREAD_NAME_PREFIX, 1).factory())
+     *
+     * @return null if virtual threads are not supported by the runtime.
+     */
+    private static ExecutorService createVirtualThreadsExecutor() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 1L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            // Java < 21.
+            return null;
+        } catch (Exception e) {
+            logger.warn("Virtual threads are available but could not be used, falling back to platform threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * Applies the task to every input, running at most maxConcurrency tasks at the same time, and returns the results in the same order as the inputs.
+     *
+     * As soon as one task fails, all remaining tasks are cancelled and the failure is rethrown to the caller.
+     *
+     * When called from a thread of the bounded pool of platform threads, tasks run sequentially on the calling thread.
+     */
+    public static <I, O> List<O> mapInOrder(List<I> inputs, Function<? super I, ? extends O> task, int maxConcurrency) {
+
+        if (inputs.size() <= 1 || maxConcurrency <= 1 || isPlatformPoolThread()) {
+            // Nothing to parallelize, or waiting for queued tasks could starve the pool: we stay on the calling thread.
+            List<O> results = new ArrayList<>(inputs.size());
+            for (I input : inputs) {
+                results.add(task.apply(input));
+            }
+            return results;
+        }
+
+        final List<O> results = new ArrayList<>(Collections.nCopies(inputs.size(), null));
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(sharedExecutor);
+        List<Future<Integer>> futures = new ArrayList<>(inputs.size());
+
+        int next = 0;
+        int running = 0;
+
+        try {
+            while (next < inputs.size() && running < maxConcurrency) {
+                futures.add(submit(completionService, inputs, next++, task, results));
+                running++;
+            }
+
+            while (running > 0) {
+                completionService.take().get();
+                running--;
+
+                if (next < inputs.size()) {
+                    futures.add(submit(completionService, inputs, next++, task, results));
+                    running++;
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for parallel REST calls to complete", e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+
+        return results;
+    }
+
+    /**
+     * Asynchronous version of {@link #mapInOrder}: the task returns a future, and at most maxConcurrency of these futures are pending at the same time.
+     * The next task is started by the completion of a previous one, so the caller doesn't wait for the tasks. The tasks themselves
+     * may still occupy a thread each while they run, e.g. the asynchronous REST calls of AzureDevopsRestClient.
+     *
+     * As soon as one task fails, no new task is started and the returned future completes with that failure.
+     */
+    public static <I, O> CompletableFuture<List<O>> mapInOrderAsync(List<I> inputs, Function<? super I, ? extends CompletableFuture<? extends O>> task, int maxConcurrency) {
+
+        CompletableFuture<List<O>> result = new CompletableFuture<>();
+
+        if (inputs.isEmpty()) {
+            result.complete(new ArrayList<>());
+            return result;
+        }
+
+        final List<O> results = new ArrayList<>(Collections.nCopies(inputs.size(), null));
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(inputs.size());
+
+        for (int i = 0; i < Math.min(Math.max(1, maxConcurrency), inputs.size()); i++) {
+            startNext(inputs, task, results, next, remaining, result);
+        }
+
+        return result;
+    }
+
+    private static <I, O> void startNext(List<I> inputs, Function<? super I, ? extends CompletableFuture<? extends O>> task, List<O> results, AtomicInteger next, AtomicInteger remaining, CompletableFuture<List<O>> result) {
+
+        if (result.isDone()) {
+            // A previous task failed.
+            return;
+        }
+
+        final int index = next.getAndIncrement();
+        if (index >= inputs.size()) {
+            return;
+        }
+
+        CompletableFuture<? extends O> future;
+        try {
+            future = task.apply(inputs.get(index));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        future.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(unwrap(error));
+                return;
+            }
+            results.set(index, value);
+            if (remaining.decrementAndGet() == 0) {
+                result.complete(results);
+            } else {
+                startNext(inputs, task, results, next, remaining, result);
+            }
+        });
+    }
+
+    /**
+     * @return the actual failure of a future, i.e. the cause of the CompletionException wrapping it if any.
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Waits for the future to complete and returns its result, rethrowing its failure as is if it's a RuntimeException.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static <I, O> Future<Integer> submit(CompletionService<Integer> completionService, final List<I> inputs, final int index, final Function<? super I, ? extends O> task, final List<O> results) {
+        return completionService.submit(() -> {
+            results.set(index, task.apply(inputs.get(index)));
+            return index;
+        });
+    }
+
+    private static void cancelAll(List<Future<Integer>> futures) {
+        for (Future<Integer> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private static class PlatformPoolThread extends Thread {
+
+        private PlatformPoolThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+    }
+
+    /**
+     * Runs asynchronous tasks submitted over time, with at most maxConcurrency of them pending at the same time.
+     * Tasks are started in submission order. Submitting never waits for a slot: a queued task is started by the completion of a previous one.
+     * As with {@link #mapInOrderAsync}, this only orchestrates the tasks: each running task may still occupy a thread.
+     *
+     * Unlike {@link #mapInOrderAsync}, tasks don't have to be known upfront, so that tasks submitted by successive steps
+     * (e.g. pages of results) share the same concurrency budget.
+     */
+    public static class AsyncTaskQueue {
+
+        private final int maxConcurrency;
+
+        private final Queue<PendingTask> pendingTasks = new ArrayDeque<>();
+
+        private int runningTasks = 0;
+
+        private boolean cancelled = false;
+
+        public AsyncTaskQueue(int maxConcurrency) {
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+        }
+
+        /**
+         * @return a future completing with the result of the task once it has been started and completed,
+         * or failing with a CancellationException if the queue is cancelled before the task is started.
+         */
+        public <T> CompletableFuture<T> submit(Supplier<? extends CompletableFuture<? extends T>> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            PendingTask pendingTask = new PendingTask(result, () -> {
+                CompletableFuture<? extends T> future;
+                try {
+                    future = task.get();
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                    onTaskDone();
+                    return;
+                }
+
+                future.whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(unwrap(error));
+                    } else {
+                        result.complete(value);
+                    }
+                    onTaskDone();
+                });
+            });
+
+            synchronized (this) {
+                if (cancelled) {
+                    result.completeExceptionally(new CancellationException("Task submitted after the queue was cancelled"));
+                    return result;
+                }
+                if (runningTasks >= maxConcurrency) {
+                    pendingTasks.add(pendingTask);
+                    return result;
+                }
+                runningTasks++;
+            }
+
+            pendingTask.start.run();
+            return result;
+        }
+
+        /**
+         * Tasks not started yet will never be started, their futures fail with a CancellationException. Running tasks are not interrupted.
+         */
+        public void cancel() {
+            List<PendingTask> cancelledTasks;
+            synchronized (this) {
+                cancelled = true;
+                cancelledTasks = new ArrayList<>(pendingTasks);
+                pendingTasks.clear();
+            }
+            for (PendingTask cancelledTask : cancelledTasks) {
+                cancelledTask.result.completeExceptionally(new CancellationException("Task cancelled before being started"));
+            }
+        }
+
+        private void onTaskDone() {
+            PendingTask next;
+            synchronized (this) {
+                next = pendingTasks.poll();
+                if (next == null) {
+                    runningTasks--;
+                    return;
+                }
+            }
+            next.start.run();
+        }
+
+        private static class PendingTask {
+
+            private final CompletableFuture<?> result;
+
+            private final Runnable start;
+
+            private PendingTask(CompletableFuture<?> result, Runnable start) {
+                this.result = result;
+                this.start = start;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes sure that a given call only runs once at a time: callers asking for a key that is already being computed
+ * wait for the running call and get its result (or its failure) instead of starting their own.
+ *
+ * Nothing is kept once the call completes, this is not a cache: the next call for the same key runs again.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public V execute(K key, Supplier<V> call) {
+
+        CompletableFuture<V> newFlight = new CompletableFuture<>();
+        CompletableFuture<V> flight = inFlight.putIfAbsent(key, newFlight);
+
+        if (flight != null) {
+            // Same call already running in another thread.
+            return ConnectorExecutors.join(flight);
+        }
+
+        try {
+            V result = call.get();
+            newFlight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            newFlight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, newFlight);
+        }
+    }
+
+    /**
+     * @return number of distinct calls currently running.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ppm.integration.agilesdk.connector.azuredevops.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe, append-only dictionary assigning a small int code to each distinct String, so that repeated values can be stored as an int
+ * and share a single String instance.
+ *
+ * Codes are never removed, so dictionaries must only be used for values with a low cardinality (field names, states, work item types, etc.).
+ * Once maxSize values are encoded, new values are not encoded anymore and must be stored as is by the caller.
+ */
+public class StringDictionary {
+
+    public static final int NOT_ENCODED = -1;
+
+    private final int maxSize;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+
+    private volatile String[] values = new String[64];
+
+    private int size = 0;
+
+    public StringDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the code of that value, adding it to the dictionary if needed, or {@link #NOT_ENCODED} if the dictionary is full.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (size >= maxSize) {
+                return NOT_ENCODED;
+            }
+            String[] currentValues = values;
+            if (size == currentValues.length) {
+                currentValues = Arrays.copyOf(currentValues, currentValues.length * 2);
+            }
+            currentValues[size] = value;
+            values = currentValues;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the code of that value, or {@link #NOT_ENCODED} if it was never encoded. Never adds the value.
+     */
+    public int getCode(String value) {
+        Integer code = codes.get(value);
+        return code == null ? NOT_ENCODED : code;
+    }
+
+    public String decode(int code) {
+        return values[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+}
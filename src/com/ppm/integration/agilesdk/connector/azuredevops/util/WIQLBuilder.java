@@ -29,6 +29,8 @@ public class WIQLBuilder {
     private Date modifiedSinceDate = null;
     private Collection<String> workItemIds = null;
     private Date createdSinceDate = null;
+    private Long idGreaterThan = null;
+    private boolean orderById = false;
 
     /**
      * Default implementation - only returns Work Items IDs.
@@ -37,6 +39,21 @@ public class WIQLBuilder {
         columns.add("System.Id");
     }
 
+    /**
+     * Copies all the columns & criteria of another builder, so that the copy can be modified without changing the original.
+     */
+    public WIQLBuilder(WIQLBuilder other) {
+        this.columns.addAll(other.columns);
+        this.workItemTypes.addAll(other.workItemTypes);
+        this.excludedStatuses.addAll(other.excludedStatuses);
+        this.crossProjectsSearch = other.crossProjectsSearch;
+        this.modifiedSinceDate = other.modifiedSinceDate;
+        this.workItemIds = other.workItemIds;
+        this.createdSinceDate = other.createdSinceDate;
+        this.idGreaterThan = other.idGreaterThan;
+        this.orderById = other.orderById;
+    }
+
     /**
      * This method is useless today, because Azure DevOps WIQL result will only return the work item ID.
      * @param columnIdentifier the identifier of the column without the square brackets, for example: System.Title */
@@ -111,7 +128,14 @@ public class WIQLBuilder {
             sb.append(") ");
         }
 
-        // No sorting criteria for now.
+        if (idGreaterThan != null) {
+            needAnd = addWhereAnd(needAnd, sb);
+            sb.append(" [System.Id] > " + idGreaterThan + " ");
+        }
+
+        if (orderById) {
+            sb.append(" ORDER BY [System.Id] ");
+        }
 
         return sb.toString();
     }
@@ -140,6 +164,23 @@ public class WIQLBuilder {
         return this;
     }
 
+    /**
+     * Only returns work items with a greater ID, to retrieve the next page of a query sorted by ID (see {@link #orderById(boolean)}).
+     * @param idGreaterThan last ID of the previous page, or null for the first page.
+     */
+    public WIQLBuilder filterByIdGreaterThan(Long idGreaterThan) {
+        this.idGreaterThan = idGreaterThan;
+        return this;
+    }
+
+    /**
+     * Sorts results by ID, which allows to page through more than the 20000 work items a single WIQL can return.
+     */
+    public WIQLBuilder orderById(boolean orderById) {
+        this.orderById = orderById;
+        return this;
+    }
+
     public boolean needsTime() {
         return createdSinceDate != null || modifiedSinceDate != null;
     }